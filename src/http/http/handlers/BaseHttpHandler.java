@@ -1,18 +1,365 @@
 package http.http.handlers;
 
+import com.google.gson.Gson;
+import com.google.gson.JsonObject;
+import com.google.gson.stream.JsonWriter;
 import com.sun.net.httpserver.HttpExchange;
+import http.util.TaskAdapter;
+import http.util.TaskFields;
+import managers.Page;
+import metrics.SerializationEvent;
+import model.Task;
+
+import java.io.BufferedWriter;
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.StringWriter;
+import java.net.URLDecoder;
 import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.BiFunction;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+import java.util.zip.GZIPOutputStream;
 
 public class BaseHttpHandler {
+    private static final int STREAM_BUFFER_SIZE = 8192;
+    private static final String JSON_CONTENT_TYPE = "application/json;charset=utf-8";
+    public static final int DEFAULT_PAGE_LIMIT = 100;
+    public static final int MAX_PAGE_LIMIT = 1000;
+    public static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+    // Тела меньше порога не сжимаются: выигрыш меньше заголовков gzip и затрат на сжатие
+    public static final int DEFAULT_COMPRESSION_THRESHOLD = 1024;
+    public static final int COMPRESSION_DISABLED = Integer.MAX_VALUE;
+
+    private final ResponseCache responseCache = new ResponseCache();
+    private int compressionThreshold = DEFAULT_COMPRESSION_THRESHOLD;
+
+    // Минимальный размер тела в байтах, начиная с которого ответ сжимается gzip
+    // для клиентов с Accept-Encoding: gzip; задаётся до запуска сервера
+    public void setCompressionThreshold(int compressionThreshold) {
+        if (compressionThreshold < 0) {
+            throw new IllegalArgumentException("Порог сжатия не может быть отрицательным");
+        }
+        this.compressionThreshold = compressionThreshold;
+    }
+
     protected void sendText(HttpExchange exchange, String text, int statusCode) throws IOException {
-        byte[] response = text.getBytes(StandardCharsets.UTF_8);
-        exchange.getResponseHeaders().add("Content-Type", "application/json;charset=utf-8");
-        exchange.sendResponseHeaders(statusCode, response.length);
-        exchange.getResponseBody().write(response);
+        sendText(exchange, text, JSON_CONTENT_TYPE, statusCode);
+    }
+
+    protected void sendText(HttpExchange exchange, String text, String contentType, int statusCode)
+            throws IOException {
+        sendBytes(exchange, text.getBytes(StandardCharsets.UTF_8), contentType, statusCode);
+    }
+
+    private void sendBytes(HttpExchange exchange, byte[] response, String contentType, int statusCode)
+            throws IOException {
+        exchange.getResponseHeaders().add("Content-Type", contentType);
+        if (!shouldCompress(exchange, response.length)) {
+            exchange.sendResponseHeaders(statusCode, response.length);
+            exchange.getResponseBody().write(response);
+            exchange.close();
+            return;
+        }
+        exchange.getResponseHeaders().add("Content-Encoding", "gzip");
+        exchange.sendResponseHeaders(statusCode, 0);
+        try (GZIPOutputStream body = new GZIPOutputStream(exchange.getResponseBody(), STREAM_BUFFER_SIZE)) {
+            body.write(response);
+        } finally {
+            exchange.close();
+        }
+    }
+
+    // Уже сжатое тело (из кэша) отправляется с известной длиной
+    private void sendCompressed(HttpExchange exchange, byte[] compressed, int statusCode) throws IOException {
+        exchange.getResponseHeaders().add("Content-Type", JSON_CONTENT_TYPE);
+        exchange.getResponseHeaders().add("Content-Encoding", "gzip");
+        exchange.sendResponseHeaders(statusCode, compressed.length);
+        exchange.getResponseBody().write(compressed);
         exchange.close();
     }
 
+    // Список пишется в тело ответа по элементу, без построения всей строки JSON в памяти.
+    // Длина ответа заранее неизвестна, поэтому используется chunked transfer encoding;
+    // клиенту с gzip тело выше порога сжимается по ходу записи
+    protected void sendJsonList(HttpExchange exchange, Gson gson, Collection<?> items, int statusCode) throws IOException {
+        TaskFields fields = requestedFields(exchange, parseQuery(exchange));
+        if (fields != null) {
+            sendJsonList(exchange, gson, items, statusCode, fields);
+        }
+    }
+
+    private void sendJsonList(HttpExchange exchange, Gson gson, Collection<?> items, int statusCode,
+                              TaskFields fields) throws IOException {
+        OutputStream body = openListBody(exchange, statusCode);
+        SerializationEvent event = new SerializationEvent();
+        event.begin();
+        CountingOutputStream counting = event.isEnabled() ? new CountingOutputStream(body) : null;
+        try (JsonWriter writer = gson.newJsonWriter(new BufferedWriter(
+                new OutputStreamWriter(counting != null ? counting : body, StandardCharsets.UTF_8),
+                STREAM_BUFFER_SIZE))) {
+            writeJsonList(writer, gson, items, fields);
+        } finally {
+            exchange.close();
+        }
+        if (counting != null) {
+            commit(event, exchange, items.size(), counting.getCount());
+        }
+    }
+
+    private OutputStream openListBody(HttpExchange exchange, int statusCode) throws IOException {
+        exchange.getResponseHeaders().add("Content-Type", JSON_CONTENT_TYPE);
+        if (acceptsGzip(exchange)) {
+            return new CompressingResponseStream(exchange, statusCode, compressionThreshold, STREAM_BUFFER_SIZE);
+        }
+        exchange.sendResponseHeaders(statusCode, 0);
+        return exchange.getResponseBody();
+    }
+
+    private static void commit(SerializationEvent event, HttpExchange exchange, int items, long bytes) {
+        if (event.shouldCommit()) {
+            event.path = exchange.getRequestURI().getPath();
+            event.items = items;
+            event.bytes = bytes;
+            event.commit();
+        }
+    }
+
+    private boolean shouldCompress(HttpExchange exchange, int length) {
+        return length >= compressionThreshold && acceptsGzip(exchange);
+    }
+
+    // Accept-Encoding: gzip (или *), кроме явного отказа через q=0. Ответ зависит от заголовка - Vary
+    private boolean acceptsGzip(HttpExchange exchange) {
+        if (compressionThreshold == COMPRESSION_DISABLED) {
+            return false;
+        }
+        exchange.getResponseHeaders().set("Vary", "Accept-Encoding");
+        String acceptEncoding = exchange.getRequestHeaders().getFirst("Accept-Encoding");
+        if (acceptEncoding == null) {
+            return false;
+        }
+        for (String candidate : acceptEncoding.split(",")) {
+            String[] parts = candidate.split(";");
+            String coding = parts[0].trim();
+            if (!coding.equalsIgnoreCase("gzip") && !coding.equals("*")) {
+                continue;
+            }
+            for (int i = 1; i < parts.length; i++) {
+                String parameter = parts[i].trim();
+                if (parameter.startsWith("q=") && isZeroQuality(parameter.substring(2))) {
+                    return false;
+                }
+            }
+            return true;
+        }
+        return false;
+    }
+
+    private static boolean isZeroQuality(String value) {
+        try {
+            return Double.parseDouble(value) == 0;
+        } catch (NumberFormatException e) {
+            return false;
+        }
+    }
+
+    private static void writeJsonList(JsonWriter writer, Gson gson, Collection<?> items,
+                                      TaskFields fields) throws IOException {
+        writer.beginArray();
+        for (Object item : items) {
+            if (item == null) {
+                writer.nullValue();
+            } else if (!fields.isAll() && item instanceof Task) {
+                TaskAdapter.write(writer, (Task) item, fields);
+            } else {
+                gson.toJson(item, item.getClass(), writer);
+            }
+        }
+        writer.endArray();
+    }
+
+    // Одна задача с учётом ?fields=
+    protected void sendTask(HttpExchange exchange, Gson gson, Task task) throws IOException {
+        TaskFields fields = requestedFields(exchange, parseQuery(exchange));
+        if (fields == null) {
+            return;
+        }
+        SerializationEvent event = new SerializationEvent();
+        event.begin();
+        String json;
+        if (fields.isAll()) {
+            json = gson.toJson(task);
+        } else {
+            StringWriter writer = new StringWriter();
+            TaskAdapter.write(gson.newJsonWriter(writer), task, fields);
+            json = writer.toString();
+        }
+        byte[] body = json.getBytes(StandardCharsets.UTF_8);
+        commit(event, exchange, 1, body.length);
+        sendBytes(exchange, body, JSON_CONTENT_TYPE, 200);
+    }
+
+    // Набор полей из ?fields= (без параметра - все поля). При неизвестном поле клиенту уже
+    // отправлен ответ 400, и возвращается null
+    private TaskFields requestedFields(HttpExchange exchange, Map<String, String> query) throws IOException {
+        try {
+            return TaskFields.parse(query.get("fields"));
+        } catch (IllegalArgumentException e) {
+            sendBadRequest(exchange, "Invalid fields");
+            return null;
+        }
+    }
+
+    // Полный список с ETag по версии данных менеджера. Если данные не менялись, клиенту с тем же
+    // If-None-Match отвечаем 304 без обращения к менеджеру, остальным - ранее сериализованным телом.
+    // Тело кэшируется, только если версия не изменилась, пока список читался, и если оно
+    // не больше ResponseCache.MAX_CACHED_BYTES; более длинное тело идёт клиенту потоком
+    protected void sendCachedList(HttpExchange exchange, Gson gson, LongSupplier version,
+                                  Supplier<? extends Collection<?>> items) throws IOException {
+        TaskFields fields = requestedFields(exchange, parseQuery(exchange));
+        if (fields != null) {
+            sendCachedList(exchange, gson, version, items, fields);
+        }
+    }
+
+    // Разные наборы полей - разные представления: у каждого свой ключ кэша и свой ETag
+    private void sendCachedList(HttpExchange exchange, Gson gson, LongSupplier version,
+                                Supplier<? extends Collection<?>> items, TaskFields fields) throws IOException {
+        String variant = fields.isAll() ? "" : fields.key();
+        String key = exchange.getRequestURI().getPath() + "#" + variant;
+        long versionBefore = version.getAsLong();
+        String etag = responseCache.etag(versionBefore, variant);
+        if (matchesIfNoneMatch(exchange, etag)) {
+            exchange.getResponseHeaders().add("ETag", etag);
+            exchange.sendResponseHeaders(304, -1);
+            exchange.close();
+            return;
+        }
+
+        byte[] body = responseCache.get(key, versionBefore);
+        if (body != null && shouldCompress(exchange, body.length)) {
+            exchange.getResponseHeaders().add("ETag", etag);
+            sendCompressed(exchange, responseCache.getCompressed(key, versionBefore, body), 200);
+            return;
+        }
+        if (body != null) {
+            exchange.getResponseHeaders().add("ETag", etag);
+            sendBytes(exchange, body, JSON_CONTENT_TYPE, 200);
+            return;
+        }
+
+        Collection<?> list = items.get();
+        if (version.getAsLong() != versionBefore) {
+            // Список прочитан уже после изменения: ни ETag, ни кэш к нему не относятся
+            sendJsonList(exchange, gson, list, 200, fields);
+            return;
+        }
+        exchange.getResponseHeaders().add("ETag", etag);
+        SerializationEvent event = new SerializationEvent();
+        event.begin();
+        CachingResponseStream tee = new CachingResponseStream(ResponseCache.MAX_CACHED_BYTES, STREAM_BUFFER_SIZE,
+                () -> openListBody(exchange, 200));
+        try (JsonWriter writer = gson.newJsonWriter(new BufferedWriter(
+                new OutputStreamWriter(tee, StandardCharsets.UTF_8), STREAM_BUFFER_SIZE))) {
+            writeJsonList(writer, gson, list, fields);
+        } finally {
+            if (tee.isStreaming()) {
+                exchange.close();
+            }
+        }
+        commit(event, exchange, list.size(), tee.getCount());
+        body = tee.getBody();
+        if (body != null) {
+            responseCache.put(key, versionBefore, body);
+            sendBytes(exchange, body, JSON_CONTENT_TYPE, 200);
+        }
+    }
+
+    private static boolean matchesIfNoneMatch(HttpExchange exchange, String etag) {
+        String ifNoneMatch = exchange.getRequestHeaders().getFirst("If-None-Match");
+        if (ifNoneMatch == null) {
+            return false;
+        }
+        for (String candidate : ifNoneMatch.split(",")) {
+            String tag = candidate.trim();
+            if (tag.startsWith("W/")) {
+                tag = tag.substring(2);
+            }
+            if (tag.equals(etag) || tag.equals("*")) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // Без параметров cursor и limit отдаётся весь список, как раньше. С ними - одна страница,
+    // курсор следующей страницы передаётся в заголовке X-Next-Cursor
+    protected void sendListOrPage(HttpExchange exchange, Gson gson, LongSupplier version,
+                                  Supplier<? extends Collection<?>> all,
+                                  BiFunction<String, Integer, ? extends Page<?>> page) throws IOException {
+        Map<String, String> query = parseQuery(exchange);
+        TaskFields fields = requestedFields(exchange, query);
+        if (fields == null) {
+            return;
+        }
+        if (!query.containsKey("cursor") && !query.containsKey("limit")) {
+            sendCachedList(exchange, gson, version, all, fields);
+            return;
+        }
+
+        int limit = DEFAULT_PAGE_LIMIT;
+        if (query.containsKey("limit")) {
+            try {
+                limit = Integer.parseInt(query.get("limit"));
+            } catch (NumberFormatException e) {
+                sendBadRequest(exchange, "Invalid limit");
+                return;
+            }
+            if (limit <= 0) {
+                sendBadRequest(exchange, "Invalid limit");
+                return;
+            }
+            limit = Math.min(limit, MAX_PAGE_LIMIT);
+        }
+        String cursor = query.get("cursor");
+        if (cursor != null && cursor.isEmpty()) {
+            cursor = null;
+        }
+
+        Page<?> result;
+        try {
+            result = page.apply(cursor, limit);
+        } catch (IllegalArgumentException e) {
+            sendBadRequest(exchange, "Invalid cursor");
+            return;
+        }
+        if (result.hasNext()) {
+            exchange.getResponseHeaders().add(NEXT_CURSOR_HEADER, result.getNextCursor());
+        }
+        sendJsonList(exchange, gson, result.getItems(), 200, fields);
+    }
+
+    protected Map<String, String> parseQuery(HttpExchange exchange) {
+        Map<String, String> params = new HashMap<>();
+        String query = exchange.getRequestURI().getRawQuery();
+        if (query == null || query.isEmpty()) {
+            return params;
+        }
+        for (String pair : query.split("&")) {
+            int separator = pair.indexOf('=');
+            String name = separator < 0 ? pair : pair.substring(0, separator);
+            String value = separator < 0 ? "" : pair.substring(separator + 1);
+            params.put(URLDecoder.decode(name, StandardCharsets.UTF_8), URLDecoder.decode(value, StandardCharsets.UTF_8));
+        }
+        return params;
+    }
+
     protected void sendNotFound(HttpExchange exchange) throws IOException {
         sendText(exchange, "{\"error\": \"Not Found\"}", 404);
     }
@@ -25,12 +372,11 @@ public class BaseHttpHandler {
         sendText(exchange, "{\"error\": \"Internal Server Error\"}", 500);
     }
 
+    // Текст ошибки экранируется: он может прийти из сообщения исключения
     protected void sendBadRequest(HttpExchange exchange, String message) throws IOException {
-        sendText(exchange, "{\"error\": \"" + message + "\"}", 400);
-    }
-
-    protected void sendNotAllowed(HttpExchange exchange) throws IOException {
-        sendText(exchange, "{\"error\": \"Method Not Allowed\"}", 405);
+        JsonObject error = new JsonObject();
+        error.addProperty("error", message);
+        sendText(exchange, error.toString(), 400);
     }
 
     protected void sendMethodNotAllowed(HttpExchange exchange) throws IOException {
@@ -0,0 +1,161 @@
+package http.http.handlers;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParseException;
+import com.google.gson.JsonParser;
+import com.sun.net.httpserver.HttpExchange;
+import managers.BatchOperation;
+import managers.BatchResult;
+import managers.TaskManager;
+import managers.TaskType;
+import model.Epic;
+import model.Subtask;
+import model.Task;
+import model.TaskStatus;
+
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+// POST /batch - массив операций, применяемых как одно целое:
+// [{"action": "CREATE", "type": "EPIC", "task": {...}},
+//  {"action": "CREATE", "type": "SUBTASK", "task": {...}, "epicRef": 0},
+//  {"action": "DELETE", "type": "TASK", "id": 5}]
+// 200 - пакет применён, 406 - пересечение по времени, 400 - прочие ошибки; ничего не применяется,
+// в ответе результат по каждой операции
+public class BatchHandler extends BaseHttpHandler {
+    public static final int MAX_OPERATIONS = 10_000;
+
+    private final TaskManager manager;
+    private final Gson gson;
+
+    public BatchHandler(TaskManager manager, Gson gson) {
+        this.manager = manager;
+        this.gson = gson;
+    }
+
+    public void registerRoutes(Router router) {
+        router.add("POST", "/batch", (exchange, params) -> handleBatch(exchange));
+    }
+
+    private void handleBatch(HttpExchange exchange) throws IOException {
+        List<BatchOperation> operations;
+        try (Reader reader = new InputStreamReader(exchange.getRequestBody(), StandardCharsets.UTF_8)) {
+            operations = parseOperations(JsonParser.parseReader(reader));
+        } catch (InvalidBatchException e) {
+            sendBadRequest(exchange, e.getMessage());
+            return;
+        } catch (JsonParseException | IllegalArgumentException | IllegalStateException e) {
+            // Сообщения gson и Enum.valueOf содержат фрагменты запроса, клиенту они не отдаются
+            sendBadRequest(exchange, "Invalid JSON format");
+            return;
+        }
+
+        BatchResult result = manager.applyBatch(operations);
+        sendText(exchange, gson.toJson(result), statusOf(result));
+    }
+
+    private static int statusOf(BatchResult result) {
+        if (result.isApplied()) {
+            return 200;
+        }
+        for (BatchResult.OperationResult operation : result.getResults()) {
+            if (operation.getError() == BatchResult.ErrorType.OVERLAP) {
+                return 406;
+            }
+        }
+        return 400;
+    }
+
+    private List<BatchOperation> parseOperations(JsonElement json) {
+        if (!json.isJsonArray()) {
+            throw new InvalidBatchException("Expected JSON array of operations");
+        }
+        JsonArray array = json.getAsJsonArray();
+        if (array.isEmpty()) {
+            throw new InvalidBatchException("Empty batch");
+        }
+        if (array.size() > MAX_OPERATIONS) {
+            throw new InvalidBatchException("Too many operations, max " + MAX_OPERATIONS);
+        }
+        List<BatchOperation> operations = new ArrayList<>(array.size());
+        for (JsonElement element : array) {
+            operations.add(parseOperation(element.getAsJsonObject()));
+        }
+        return operations;
+    }
+
+    private BatchOperation parseOperation(JsonObject json) {
+        BatchOperation.Action action = requireEnum(json, "action", BatchOperation.Action.class);
+        TaskType type = requireEnum(json, "type", TaskType.class);
+        if (action == BatchOperation.Action.DELETE) {
+            return BatchOperation.delete(type, requireInt(json, "id"));
+        }
+        JsonElement taskJson = json.get("task");
+        if (taskJson == null || !taskJson.isJsonObject()) {
+            throw new InvalidBatchException("Missing task");
+        }
+        Task task = gson.fromJson(taskJson, taskClass(type));
+        if (task.getStatus() == null) {
+            task.setStatus(TaskStatus.NEW);
+        }
+        if (action == BatchOperation.Action.UPDATE) {
+            return BatchOperation.update(task);
+        }
+        if (type == TaskType.SUBTASK && json.has("epicRef")) {
+            return BatchOperation.createSubtask((Subtask) task, requireInt(json, "epicRef"));
+        }
+        return BatchOperation.create(task);
+    }
+
+    private static Class<? extends Task> taskClass(TaskType type) {
+        switch (type) {
+            case EPIC:
+                return Epic.class;
+            case SUBTASK:
+                return Subtask.class;
+            default:
+                return Task.class;
+        }
+    }
+
+    private static String requireString(JsonObject json, String name) {
+        JsonElement value = json.get(name);
+        if (value == null || value.isJsonNull()) {
+            throw new InvalidBatchException("Missing " + name);
+        }
+        if (!value.isJsonPrimitive()) {
+            throw new InvalidBatchException("Invalid " + name);
+        }
+        return value.getAsString();
+    }
+
+    private static <E extends Enum<E>> E requireEnum(JsonObject json, String name, Class<E> type) {
+        try {
+            return Enum.valueOf(type, requireString(json, name));
+        } catch (IllegalArgumentException e) {
+            throw new InvalidBatchException("Invalid " + name);
+        }
+    }
+
+    private static int requireInt(JsonObject json, String name) {
+        try {
+            return Integer.parseInt(requireString(json, name));
+        } catch (NumberFormatException e) {
+            throw new InvalidBatchException("Invalid " + name);
+        }
+    }
+
+    // Ошибка разбора пакета с заранее известным текстом, который можно вернуть клиенту
+    private static final class InvalidBatchException extends RuntimeException {
+        InvalidBatchException(String message) {
+            super(message);
+        }
+    }
+}
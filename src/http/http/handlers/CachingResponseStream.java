@@ -0,0 +1,73 @@
+package http.http.handlers;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+
+// Тело списка, которое может попасть в кэш ответов. Пока тело не больше limit, оно копится
+// в памяти и после записи отправляется вызывающим целиком; как только limit превышен,
+// кэшировать уже нечего - открывается обычный потоковый ответ, и дальше буфер не растёт
+class CachingResponseStream extends OutputStream {
+    interface BodyOpener {
+        OutputStream open() throws IOException;
+    }
+
+    private final int limit;
+    private final BodyOpener opener;
+    private ByteArrayOutputStream buffer;
+    private OutputStream out;
+    private long count;
+
+    CachingResponseStream(int limit, int initialSize, BodyOpener opener) {
+        this.limit = limit;
+        this.opener = opener;
+        this.buffer = new ByteArrayOutputStream(Math.min(limit, initialSize));
+    }
+
+    @Override
+    public void write(int b) throws IOException {
+        write(new byte[]{(byte) b}, 0, 1);
+    }
+
+    @Override
+    public void write(byte[] bytes, int offset, int length) throws IOException {
+        count += length;
+        if (out == null) {
+            if (buffer.size() + length <= limit) {
+                buffer.write(bytes, offset, length);
+                return;
+            }
+            out = opener.open();
+            buffer.writeTo(out);
+            buffer = null;
+        }
+        out.write(bytes, offset, length);
+    }
+
+    @Override
+    public void flush() throws IOException {
+        if (out != null) {
+            out.flush();
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (out != null) {
+            out.close();
+        }
+    }
+
+    boolean isStreaming() {
+        return out != null;
+    }
+
+    // Всё тело, если оно уместилось в limit, иначе null - тело уже ушло клиенту
+    byte[] getBody() {
+        return buffer == null ? null : buffer.toByteArray();
+    }
+
+    long getCount() {
+        return count;
+    }
+}
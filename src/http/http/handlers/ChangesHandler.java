@@ -0,0 +1,45 @@
+package http.http.handlers;
+
+import com.google.gson.Gson;
+import com.sun.net.httpserver.HttpExchange;
+import managers.ChangeSet;
+import managers.TaskManager;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Map;
+
+// GET /changes?since=<version>[&epoch=<epoch>] - изменения после версии клиента.
+// Если они уже вытеснены из журнала или менеджер перезапущен (другой epoch), отвечаем 410
+// с resyncRequired = true: клиенту нужно заново загрузить списки и взять из ответа новую версию
+public class ChangesHandler extends BaseHttpHandler {
+    private final TaskManager manager;
+    private final Gson gson;
+
+    public ChangesHandler(TaskManager manager, Gson gson) {
+        this.manager = manager;
+        this.gson = gson;
+    }
+
+    public void registerRoutes(Router router) {
+        router.add("GET", "/changes", (exchange, params) -> handleGetChanges(exchange));
+    }
+
+    private void handleGetChanges(HttpExchange exchange) throws IOException {
+        Map<String, String> query = parseQuery(exchange);
+        long since;
+        try {
+            since = Long.parseLong(query.getOrDefault("since", ""));
+        } catch (NumberFormatException e) {
+            sendBadRequest(exchange, "Invalid since");
+            return;
+        }
+
+        ChangeSet changes = manager.getChangesSince(since);
+        String epoch = query.get("epoch");
+        if (epoch != null && !epoch.equals(changes.getEpoch())) {
+            changes = new ChangeSet(changes.getEpoch(), changes.getVersion(), true, new ArrayList<>());
+        }
+        sendText(exchange, gson.toJson(changes), changes.isResyncRequired() ? 410 : 200);
+    }
+}
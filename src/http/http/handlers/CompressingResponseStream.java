@@ -0,0 +1,70 @@
+package http.http.handlers;
+
+import com.sun.net.httpserver.HttpExchange;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.zip.GZIPOutputStream;
+
+// Тело ответа неизвестной заранее длины для клиента, принимающего gzip. Пока тело меньше порога,
+// оно копится в небольшом буфере и уходит как есть с Content-Length; как только порог достигнут,
+// отправляются заголовки с Content-Encoding: gzip, и всё дальнейшее идёт через сжатие потоком
+class CompressingResponseStream extends OutputStream {
+    private final HttpExchange exchange;
+    private final int statusCode;
+    private final int threshold;
+    private final int bufferSize;
+    private ByteArrayOutputStream pending;
+    private OutputStream out;
+
+    CompressingResponseStream(HttpExchange exchange, int statusCode, int threshold, int bufferSize) {
+        this.exchange = exchange;
+        this.statusCode = statusCode;
+        this.threshold = threshold;
+        this.bufferSize = bufferSize;
+        this.pending = new ByteArrayOutputStream(Math.min(threshold, bufferSize));
+    }
+
+    @Override
+    public void write(int b) throws IOException {
+        write(new byte[]{(byte) b}, 0, 1);
+    }
+
+    @Override
+    public void write(byte[] bytes, int offset, int length) throws IOException {
+        if (out == null) {
+            if (pending.size() + length < threshold) {
+                pending.write(bytes, offset, length);
+                return;
+            }
+            exchange.getResponseHeaders().add("Content-Encoding", "gzip");
+            exchange.sendResponseHeaders(statusCode, 0);
+            out = new GZIPOutputStream(exchange.getResponseBody(), bufferSize);
+            pending.writeTo(out);
+            pending = null;
+        }
+        out.write(bytes, offset, length);
+    }
+
+    @Override
+    public void flush() throws IOException {
+        if (out != null) {
+            out.flush();
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (out != null) {
+            out.close();
+            return;
+        }
+        byte[] body = pending.toByteArray();
+        exchange.sendResponseHeaders(statusCode, body.length == 0 ? -1 : body.length);
+        if (body.length > 0) {
+            exchange.getResponseBody().write(body);
+        }
+        exchange.getResponseBody().close();
+    }
+}
@@ -3,7 +3,6 @@ package http.http.handlers;
 import com.google.gson.Gson;
 import com.google.gson.JsonSyntaxException;
 import com.sun.net.httpserver.HttpExchange;
-import com.sun.net.httpserver.HttpHandler;
 import managers.TaskManager;
 import model.Epic;
 import model.Subtask;
@@ -11,7 +10,7 @@ import model.Subtask;
 import java.io.IOException;
 import java.util.List;
 
-public class EpicsHandler extends BaseHttpHandler implements HttpHandler {
+public class EpicsHandler extends BaseHttpHandler {
     private final TaskManager manager;
     private final Gson gson;
 
@@ -20,48 +19,18 @@ public class EpicsHandler extends BaseHttpHandler implements HttpHandler {
         this.gson = gson;
     }
 
-    @Override
-    public void handle(HttpExchange exchange) throws IOException {
-        try {
-            String method = exchange.getRequestMethod();
-            String path = exchange.getRequestURI().getPath();
-
-            if ("GET".equals(method) && path.equals("/epics")) {
-                handleGetAllEpics(exchange);
-            } else if ("POST".equals(method) && path.equals("/epics")) {
-                handleCreateEpic(exchange);
-            } else if ("DELETE".equals(method) && path.equals("/epics")) {
-                handleDeleteAllEpics(exchange);
-            } else if (path.matches("/epics/\\d+")) {
-                String[] pathParts = path.split("/");
-                int id = Integer.parseInt(pathParts[2]);
-
-                if ("GET".equals(method)) {
-                    handleGetEpic(exchange, id);
-                } else if ("POST".equals(method)) {
-                    handleUpdateEpic(exchange, id);
-                } else if ("DELETE".equals(method)) {
-                    handleDeleteEpic(exchange, id);
-                } else {
-                    sendNotFound(exchange);
-                }
-            } else if (path.matches("/epics/\\d+/subtasks")) {
-                String[] pathParts = path.split("/");
-                int id = Integer.parseInt(pathParts[2]);
-                handleGetEpicSubtasks(exchange, id);
-            } else {
-                sendNotFound(exchange);
-            }
-        } catch (NumberFormatException e) {
-            sendBadRequest(exchange, "Invalid ID format");
-        } catch (Exception e) {
-            sendInternalError(exchange);
-        }
+    public void registerRoutes(Router router) {
+        router.add("GET", "/epics", (exchange, params) -> handleGetAllEpics(exchange))
+                .add("POST", "/epics", (exchange, params) -> handleCreateEpic(exchange))
+                .add("DELETE", "/epics", (exchange, params) -> handleDeleteAllEpics(exchange))
+                .add("GET", "/epics/{id}", (exchange, params) -> handleGetEpic(exchange, params[0]))
+                .add("POST", "/epics/{id}", (exchange, params) -> handleUpdateEpic(exchange, params[0]))
+                .add("DELETE", "/epics/{id}", (exchange, params) -> handleDeleteEpic(exchange, params[0]))
+                .add("GET", "/epics/{id}/subtasks", (exchange, params) -> handleGetEpicSubtasks(exchange, params[0]));
     }
 
     private void handleGetAllEpics(HttpExchange exchange) throws IOException {
-        List<Epic> epics = manager.getAllEpics();
-        sendText(exchange, gson.toJson(epics), 200);
+        sendListOrPage(exchange, gson, manager::getVersion, manager::getAllEpics, manager::getEpicsPage);
     }
 
     private void handleCreateEpic(HttpExchange exchange) throws IOException {
@@ -88,7 +57,7 @@ public class EpicsHandler extends BaseHttpHandler implements HttpHandler {
     private void handleGetEpic(HttpExchange exchange, int id) throws IOException {
         Epic epic = manager.getEpic(id);
         if (epic != null) {
-            sendText(exchange, gson.toJson(epic), 200);
+            sendTask(exchange, gson, epic);
         } else {
             sendNotFound(exchange);
         }
@@ -118,6 +87,6 @@ public class EpicsHandler extends BaseHttpHandler implements HttpHandler {
 
     private void handleGetEpicSubtasks(HttpExchange exchange, int id) throws IOException {
         List<Subtask> subtasks = manager.getSubtasksByEpic(id);
-        sendText(exchange, gson.toJson(subtasks), 200);
+        sendJsonList(exchange, gson, subtasks, 200);
     }
 }
\ No newline at end of file
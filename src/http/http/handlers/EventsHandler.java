@@ -0,0 +1,173 @@
+package http.http.handlers;
+
+import com.google.gson.Gson;
+import com.sun.net.httpserver.HttpExchange;
+import managers.Change;
+import managers.ChangeListener;
+import managers.ChangeSet;
+import managers.TaskManager;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+
+// GET /events - поток изменений в формате Server-Sent Events.
+// Менеджер только кладёт изменение в ограниченную очередь каждого подписчика и никогда не ждёт;
+// в сеть пишет отдельный виртуальный поток подписчика, который в простое почти ничего не стоит.
+// Переполнение очереди (клиент не успевает читать) закрывает соединение: клиент переподключается
+// с Last-Event-ID и получает пропущенное из журнала изменений
+public class EventsHandler extends BaseHttpHandler {
+    public static final int DEFAULT_BUFFER_SIZE = 256;
+    public static final int MAX_SUBSCRIBERS = 1000;
+    private static final long KEEP_ALIVE_SECONDS = 15;
+
+    private final TaskManager manager;
+    private final Gson gson;
+    private final int bufferSize;
+    private final List<Subscriber> subscribers = new CopyOnWriteArrayList<>();
+    private final ChangeListener listener = this::broadcast;
+
+    public EventsHandler(TaskManager manager, Gson gson) {
+        this(manager, gson, DEFAULT_BUFFER_SIZE);
+    }
+
+    public EventsHandler(TaskManager manager, Gson gson, int bufferSize) {
+        this.manager = manager;
+        this.gson = gson;
+        this.bufferSize = bufferSize;
+        manager.addChangeListener(listener);
+    }
+
+    public void registerRoutes(Router router) {
+        router.add("GET", "/events", (exchange, params) -> subscribe(exchange));
+    }
+
+    private void subscribe(HttpExchange exchange) throws IOException {
+        try {
+            if (subscribers.size() >= MAX_SUBSCRIBERS) {
+                sendText(exchange, "{\"error\": \"Too many subscribers\"}", 503);
+                return;
+            }
+            long lastEventId = -1;
+            String lastEventIdHeader = exchange.getRequestHeaders().getFirst("Last-Event-ID");
+            if (lastEventIdHeader != null) {
+                try {
+                    lastEventId = Long.parseLong(lastEventIdHeader.trim());
+                } catch (NumberFormatException e) {
+                    sendBadRequest(exchange, "Invalid Last-Event-ID");
+                    return;
+                }
+            }
+
+            Subscriber subscriber = new Subscriber(exchange);
+            // Подписка до чтения журнала: изменения, попавшие и туда и в очередь, отсеиваются по версии.
+            // Журнал читается здесь, в потоке обработчика, как и остальные обращения к менеджеру
+            subscribers.add(subscriber);
+            ChangeSet missed;
+            try {
+                missed = manager.getChangesSince(lastEventId < 0 ? manager.getVersion() : lastEventId - 1);
+            } catch (RuntimeException e) {
+                subscribers.remove(subscriber);
+                throw e;
+            }
+            exchange.getResponseHeaders().add("Content-Type", "text/event-stream;charset=utf-8");
+            exchange.getResponseHeaders().add("Cache-Control", "no-cache");
+            exchange.sendResponseHeaders(200, 0);
+            Thread.ofVirtual().name("sse-subscriber").start(() -> subscriber.stream(missed));
+        } catch (Exception e) {
+            exchange.close();
+        }
+    }
+
+    public int getSubscriberCount() {
+        return subscribers.size();
+    }
+
+    // Отключить всех подписчиков и перестать получать изменения от менеджера
+    public void close() {
+        manager.removeChangeListener(listener);
+        for (Subscriber subscriber : subscribers) {
+            subscriber.disconnect();
+        }
+    }
+
+    private void broadcast(Change change) {
+        for (Subscriber subscriber : subscribers) {
+            if (!subscriber.queue.offer(change)) {
+                subscriber.disconnect();
+            }
+        }
+    }
+
+    private final class Subscriber {
+        private final HttpExchange exchange;
+        private final BlockingQueue<Change> queue = new ArrayBlockingQueue<>(bufferSize);
+        private volatile boolean closed;
+        private volatile Thread thread;
+
+        Subscriber(HttpExchange exchange) {
+            this.exchange = exchange;
+        }
+
+        void disconnect() {
+            closed = true;
+            Thread current = thread;
+            if (current != null) {
+                current.interrupt();
+            }
+        }
+
+        void stream(ChangeSet missed) {
+            thread = Thread.currentThread();
+            try (OutputStream body = exchange.getResponseBody()) {
+                long sentUpTo = replayMissed(body, missed);
+                while (!closed) {
+                    Change change = queue.poll(KEEP_ALIVE_SECONDS, TimeUnit.SECONDS);
+                    if (closed) {
+                        break;
+                    }
+                    if (change == null) {
+                        write(body, ": keep-alive\n\n");
+                    } else if (change.getVersion() > sentUpTo) {
+                        write(body, event(change));
+                    }
+                }
+            } catch (IOException | InterruptedException e) {
+                // Клиент отключился или подписка закрыта
+            } finally {
+                subscribers.remove(this);
+                exchange.close();
+            }
+        }
+
+        // После переподключения версия последнего события повторяется целиком: у одной версии
+        // может быть несколько записей, и обрыв мог случиться между ними. Повтор безопасен -
+        // каждое событие лишь сообщает клиенту, какую задачу перечитать
+        private long replayMissed(OutputStream body, ChangeSet missed) throws IOException {
+            StringBuilder events = new StringBuilder("retry: 1000\n\n");
+            if (missed.isResyncRequired()) {
+                events.append("event: resync\ndata: ").append(missed.getVersion()).append("\n\n");
+            } else {
+                for (Change change : missed.getChanges()) {
+                    events.append(event(change));
+                }
+            }
+            write(body, events.toString());
+            return missed.getVersion();
+        }
+
+        private String event(Change change) {
+            return "id: " + change.getVersion() + "\nevent: change\ndata: " + gson.toJson(change) + "\n\n";
+        }
+
+        private void write(OutputStream body, String text) throws IOException {
+            body.write(text.getBytes(StandardCharsets.UTF_8));
+            body.flush();
+        }
+    }
+}
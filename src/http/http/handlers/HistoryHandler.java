@@ -2,14 +2,13 @@ package http.http.handlers;
 
 import com.google.gson.Gson;
 import com.sun.net.httpserver.HttpExchange;
-import com.sun.net.httpserver.HttpHandler;
 import managers.TaskManager;
 import model.Task;
 
 import java.io.IOException;
 import java.util.List;
 
-public class HistoryHandler extends BaseHttpHandler implements HttpHandler {
+public class HistoryHandler extends BaseHttpHandler {
     private final TaskManager manager;
     private final Gson gson;
 
@@ -18,17 +17,12 @@ public class HistoryHandler extends BaseHttpHandler implements HttpHandler {
         this.gson = gson;
     }
 
-    @Override
-    public void handle(HttpExchange exchange) throws IOException {
-        try {
-            if ("GET".equals(exchange.getRequestMethod())) {
-                List<Task> history = manager.getHistory();
-                sendText(exchange, gson.toJson(history), 200);
-            } else {
-                sendNotFound(exchange);
-            }
-        } catch (Exception e) {
-            sendInternalError(exchange);
-        }
+    public void registerRoutes(Router router) {
+        router.add("GET", "/history", (exchange, params) -> handleGetHistory(exchange));
+    }
+
+    private void handleGetHistory(HttpExchange exchange) throws IOException {
+        List<Task> history = manager.getHistory();
+        sendJsonList(exchange, gson, history, 200);
     }
 }
\ No newline at end of file
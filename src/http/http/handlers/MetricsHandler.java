@@ -0,0 +1,25 @@
+package http.http.handlers;
+
+import com.sun.net.httpserver.HttpExchange;
+import metrics.MetricsRegistry;
+
+import java.io.IOException;
+
+// Метрики сервера и менеджера в текстовом формате Prometheus
+public class MetricsHandler extends BaseHttpHandler {
+    private static final String CONTENT_TYPE = "text/plain; version=0.0.4; charset=utf-8";
+
+    private final MetricsRegistry registry;
+
+    public MetricsHandler(MetricsRegistry registry) {
+        this.registry = registry;
+    }
+
+    public void registerRoutes(Router router) {
+        router.add("GET", "/metrics", (exchange, params) -> handleGetMetrics(exchange));
+    }
+
+    private void handleGetMetrics(HttpExchange exchange) throws IOException {
+        sendText(exchange, registry.toPrometheusText(), CONTENT_TYPE, 200);
+    }
+}
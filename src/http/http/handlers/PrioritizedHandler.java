@@ -2,14 +2,11 @@ package http.http.handlers;
 
 import com.google.gson.Gson;
 import com.sun.net.httpserver.HttpExchange;
-import com.sun.net.httpserver.HttpHandler;
 import managers.TaskManager;
-import model.Task;
 
 import java.io.IOException;
-import java.util.List;
 
-public class PrioritizedHandler extends BaseHttpHandler implements HttpHandler {
+public class PrioritizedHandler extends BaseHttpHandler {
     private final TaskManager manager;
     private final Gson gson;
 
@@ -18,17 +15,12 @@ public class PrioritizedHandler extends BaseHttpHandler implements HttpHandler {
         this.gson = gson;
     }
 
-    @Override
-    public void handle(HttpExchange exchange) throws IOException {
-        try {
-            if ("GET".equals(exchange.getRequestMethod())) {
-                List<Task> prioritized = manager.getPrioritizedTasks();
-                sendText(exchange, gson.toJson(prioritized), 200);
-            } else {
-                sendNotFound(exchange);
-            }
-        } catch (Exception e) {
-            sendInternalError(exchange);
-        }
+    public void registerRoutes(Router router) {
+        router.add("GET", "/prioritized", (exchange, params) -> handleGetPrioritized(exchange));
+    }
+
+    private void handleGetPrioritized(HttpExchange exchange) throws IOException {
+        sendListOrPage(exchange, gson, manager::getVersion, manager::getPrioritizedTasks,
+                manager::getPrioritizedTasksPage);
     }
 }
\ No newline at end of file
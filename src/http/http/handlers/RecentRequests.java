@@ -0,0 +1,78 @@
+package http.http.handlers;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+// Кольцо из последних запросов для поиска медленных: запись - один объект и атомарный инкремент,
+// сортировка выполняется только при выгрузке. Старые запросы перезаписываются новыми
+public class RecentRequests {
+    public static final int DEFAULT_CAPACITY = 1024;
+
+    private static final class Sample {
+        final String method;
+        final String path;
+        final int status;
+        final long nanos;
+        final long finishedAtMillis;
+
+        Sample(String method, String path, int status, long nanos, long finishedAtMillis) {
+            this.method = method;
+            this.path = path;
+            this.status = status;
+            this.nanos = nanos;
+            this.finishedAtMillis = finishedAtMillis;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%.3f ms %s %s %d at %s", nanos / 1e6, method, path, status,
+                    Instant.ofEpochMilli(finishedAtMillis));
+        }
+    }
+
+    private final AtomicReferenceArray<Sample> samples;
+    private final AtomicLong total = new AtomicLong();
+
+    public RecentRequests() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    public RecentRequests(int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Размер кольца должен быть положительным");
+        }
+        this.samples = new AtomicReferenceArray<>(capacity);
+    }
+
+    void record(String method, String path, int status, long nanos) {
+        long index = total.getAndIncrement();
+        samples.lazySet((int) (index % samples.length()),
+                new Sample(method, path, status, nanos, System.currentTimeMillis()));
+    }
+
+    // Всего запросов с запуска, включая вытесненные из кольца
+    public long getTotal() {
+        return total.get();
+    }
+
+    // Самые медленные из последних запросов, по убыванию длительности
+    public List<String> slowest(int limit) {
+        List<Sample> recent = new ArrayList<>(samples.length());
+        for (int i = 0; i < samples.length(); i++) {
+            Sample sample = samples.get(i);
+            if (sample != null) {
+                recent.add(sample);
+            }
+        }
+        recent.sort(Comparator.comparingLong((Sample sample) -> sample.nanos).reversed());
+        List<String> result = new ArrayList<>(Math.min(limit, recent.size()));
+        for (int i = 0; i < recent.size() && i < limit; i++) {
+            result.add(recent.get(i).toString());
+        }
+        return result;
+    }
+}
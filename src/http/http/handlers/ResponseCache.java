@@ -0,0 +1,65 @@
+package http.http.handlers;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.zip.GZIPOutputStream;
+
+// Готовые тела ответов списков по ключу запроса, действительные для одной версии данных менеджера.
+// В ETag кроме версии входит случайная метка экземпляра: после перезапуска сервера версии
+// начинаются заново, и старый ETag клиента не должен совпасть с новыми данными
+class ResponseCache {
+    static final int MAX_CACHED_BYTES = 16 * 1024 * 1024;
+
+    static final class Entry {
+        final long version;
+        final byte[] body;
+        // Сжатое тело для клиентов с gzip: считается при первом таком запросе, один раз на версию
+        volatile byte[] compressed;
+
+        Entry(long version, byte[] body) {
+            this.version = version;
+            this.body = body;
+        }
+    }
+
+    private final String instanceTag = Long.toHexString(ThreadLocalRandom.current().nextLong());
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+
+    // variant отличает представления одного списка (например, набор полей); "" - полное
+    String etag(long version, String variant) {
+        return "\"" + instanceTag + "-" + version + (variant.isEmpty() ? "" : "-" + variant) + "\"";
+    }
+
+    byte[] get(String key, long version) {
+        Entry entry = entries.get(key);
+        return entry != null && entry.version == version ? entry.body : null;
+    }
+
+    byte[] getCompressed(String key, long version, byte[] body) throws IOException {
+        Entry entry = entries.get(key);
+        boolean cached = entry != null && entry.version == version && entry.body == body;
+        if (cached && entry.compressed != null) {
+            return entry.compressed;
+        }
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream(body.length / 4 + 64);
+        try (GZIPOutputStream gzip = new GZIPOutputStream(buffer)) {
+            gzip.write(body);
+        }
+        byte[] compressed = buffer.toByteArray();
+        if (cached) {
+            entry.compressed = compressed;
+        }
+        return compressed;
+    }
+
+    void put(String key, long version, byte[] body) {
+        if (body.length <= MAX_CACHED_BYTES) {
+            entries.put(key, new Entry(version, body));
+        } else {
+            entries.remove(key);
+        }
+    }
+}
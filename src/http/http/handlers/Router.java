@@ -0,0 +1,234 @@
+package http.http.handlers;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+
+import metrics.Counter;
+import metrics.Histogram;
+import metrics.MetricsRegistry;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// Общий маршрутизатор сервера: дерево по сегментам пути строится один раз при запуске.
+// Шаблон вида "/epics/{id}/subtasks": сегмент {имя} - целочисленный параметр, остальные сегменты
+// сравниваются как есть. Путь разбирается за один проход без регулярных выражений и split:
+// сегменты сравниваются на месте, числа читаются прямо из строки пути.
+// Нет маршрута - 404, нет метода у маршрута - 405, число вне диапазона int - 400
+public class Router extends BaseHttpHandler implements HttpHandler {
+
+    @FunctionalInterface
+    public interface Route {
+        // params - значения {параметров} в порядке их следования в шаблоне
+        void handle(HttpExchange exchange, int[] params) throws IOException;
+    }
+
+    private static final class Node {
+        final String segment;
+        final List<Node> literals = new ArrayList<>();
+        Node parameter;
+        final Map<String, Route> methods = new HashMap<>();
+        final Map<String, RouteMetrics> metrics = new HashMap<>();
+        String allowedMethods;
+
+        Node(String segment) {
+            this.segment = segment;
+        }
+    }
+
+    // Число запросов по классу статуса и время обработки для одного маршрута и метода
+    private static final class RouteMetrics {
+        private final MetricsRegistry registry;
+        private final String method;
+        private final String route;
+        private final Histogram latency;
+        private final Counter[] byStatusClass = new Counter[6];
+
+        RouteMetrics(MetricsRegistry registry, String method, String route) {
+            this.registry = registry;
+            this.method = method;
+            this.route = route;
+            this.latency = registry.histogram("http_request_duration_seconds", "HTTP request latency",
+                    "method", method, "route", route);
+        }
+
+        void record(long nanos, int statusCode) {
+            latency.recordNanos(nanos);
+            int statusClass = statusCode >= 100 && statusCode < 600 ? statusCode / 100 : 0;
+            Counter counter = byStatusClass[statusClass];
+            if (counter == null) {
+                // Гонка безопасна: реестр вернёт тот же счётчик
+                counter = registry.counter("http_requests_total", "HTTP requests by route and status class",
+                        "method", method, "route", route, "status", statusClass == 0 ? "other" : statusClass + "xx");
+                byStatusClass[statusClass] = counter;
+            }
+            counter.increment();
+        }
+    }
+
+    private static final int NO_MATCH = -1;
+    private static final int OUT_OF_RANGE = -2;
+
+    private final Node root = new Node("");
+    private final MetricsRegistry registry;
+    private final RouteMetrics unmatched;
+    private final RecentRequests recentRequests;
+    private int maxParams;
+
+    public Router() {
+        this(null);
+    }
+
+    // С registry каждый маршрут замеряется; запросы без маршрута учитываются как route="unmatched".
+    // Последние запросы с их длительностью тогда же попадают в getRecentRequests()
+    public Router(MetricsRegistry registry) {
+        this.registry = registry;
+        this.unmatched = registry != null ? new RouteMetrics(registry, "ANY", "unmatched") : null;
+        this.recentRequests = registry != null ? new RecentRequests() : null;
+    }
+
+    // null, если маршрутизатор создан без метрик
+    public RecentRequests getRecentRequests() {
+        return recentRequests;
+    }
+
+    public Router add(String method, String pattern, Route route) {
+        if (pattern.isEmpty() || pattern.charAt(0) != '/') {
+            throw new IllegalArgumentException("Шаблон пути должен начинаться с '/': " + pattern);
+        }
+        Node node = root;
+        int params = 0;
+        for (String segment : pattern.substring(1).split("/", -1)) {
+            if (segment.startsWith("{") && segment.endsWith("}")) {
+                if (node.parameter == null) {
+                    node.parameter = new Node(segment);
+                }
+                node = node.parameter;
+                params++;
+            } else {
+                node = literalChild(node, segment);
+            }
+        }
+        if (node.methods.putIfAbsent(method, route) != null) {
+            throw new IllegalArgumentException("Маршрут уже задан: " + method + " " + pattern);
+        }
+        if (registry != null) {
+            node.metrics.put(method, new RouteMetrics(registry, method, pattern));
+        }
+        node.allowedMethods = String.join(", ", node.methods.keySet());
+        maxParams = Math.max(maxParams, params);
+        return this;
+    }
+
+    @Override
+    public void handle(HttpExchange exchange) throws IOException {
+        // Время замеряется один раз на запрос и только при включённых метриках
+        long started = registry != null ? System.nanoTime() : 0;
+        try {
+            String path = exchange.getRequestURI().getPath();
+            int[] params = new int[maxParams];
+            int paramCount = 0;
+            Node node = root;
+            int start = 1;
+            while (node != null) {
+                int end = path.indexOf('/', start);
+                if (end < 0) {
+                    end = path.length();
+                }
+                Node next = findLiteral(node, path, start, end);
+                if (next == null && node.parameter != null) {
+                    int value = parseId(path, start, end);
+                    if (value == OUT_OF_RANGE) {
+                        sendBadRequest(exchange, "Invalid ID format");
+                        record(unmatched, exchange, started);
+                        return;
+                    }
+                    if (value != NO_MATCH) {
+                        params[paramCount++] = value;
+                        next = node.parameter;
+                    }
+                }
+                node = next;
+                if (end == path.length()) {
+                    break;
+                }
+                start = end + 1;
+            }
+
+            if (node == null || node.methods.isEmpty()) {
+                sendNotFound(exchange);
+                record(unmatched, exchange, started);
+                return;
+            }
+            Route route = node.methods.get(exchange.getRequestMethod());
+            if (route == null) {
+                exchange.getResponseHeaders().add("Allow", node.allowedMethods);
+                sendMethodNotAllowed(exchange);
+                record(unmatched, exchange, started);
+                return;
+            }
+            // Ошибка обработчика превращается в 500 до записи метрик, чтобы статус попал в них
+            try {
+                route.handle(exchange, params);
+            } catch (Exception e) {
+                sendInternalError(exchange);
+            }
+            record(node.metrics.get(exchange.getRequestMethod()), exchange, started);
+        } catch (Exception e) {
+            sendInternalError(exchange);
+        }
+    }
+
+    private void record(RouteMetrics metrics, HttpExchange exchange, long started) {
+        if (metrics == null) {
+            return;
+        }
+        long nanos = System.nanoTime() - started;
+        int status = exchange.getResponseCode();
+        metrics.record(nanos, status);
+        recentRequests.record(exchange.getRequestMethod(), exchange.getRequestURI().getPath(), status, nanos);
+    }
+
+    private static Node literalChild(Node node, String segment) {
+        for (Node child : node.literals) {
+            if (child.segment.equals(segment)) {
+                return child;
+            }
+        }
+        Node child = new Node(segment);
+        node.literals.add(child);
+        return child;
+    }
+
+    private static Node findLiteral(Node node, String path, int start, int end) {
+        int length = end - start;
+        for (int i = 0; i < node.literals.size(); i++) {
+            Node child = node.literals.get(i);
+            if (child.segment.length() == length && path.regionMatches(start, child.segment, 0, length)) {
+                return child;
+            }
+        }
+        return null;
+    }
+
+    // Неотрицательное целое из цифр; иначе NO_MATCH (сегмент не число) или OUT_OF_RANGE
+    private static int parseId(String path, int start, int end) {
+        if (start == end) {
+            return NO_MATCH;
+        }
+        long value = 0;
+        for (int i = start; i < end; i++) {
+            char c = path.charAt(i);
+            if (c < '0' || c > '9') {
+                return NO_MATCH;
+            }
+            if (value <= Integer.MAX_VALUE) {
+                value = value * 10 + (c - '0');
+            }
+        }
+        return value > Integer.MAX_VALUE ? OUT_OF_RANGE : (int) value;
+    }
+}
@@ -3,16 +3,14 @@ package http.http.handlers;
 import com.google.gson.Gson;
 import com.google.gson.JsonSyntaxException;
 import com.sun.net.httpserver.HttpExchange;
-import com.sun.net.httpserver.HttpHandler;
 import managers.TaskManager;
 import managers.ManagerValidationException;
 import model.Subtask;
 
 import java.io.IOException;
 import java.nio.charset.StandardCharsets;
-import java.util.List;
 
-public class SubtasksHandler extends BaseHttpHandler implements HttpHandler {
+public class SubtasksHandler extends BaseHttpHandler {
     private final TaskManager manager;
     private final Gson gson;
 
@@ -21,44 +19,17 @@ public class SubtasksHandler extends BaseHttpHandler implements HttpHandler {
         this.gson = gson;
     }
 
-    @Override
-    public void handle(HttpExchange exchange) throws IOException {
-        try {
-            String method = exchange.getRequestMethod();
-            String path = exchange.getRequestURI().getPath();
-
-            if ("GET".equals(method) && path.equals("/subtasks")) {
-                handleGetAllSubtasks(exchange);
-            } else if ("POST".equals(method) && path.equals("/subtasks")) {
-                handleCreateSubtask(exchange);
-            } else if ("DELETE".equals(method) && path.equals("/subtasks")) {
-                handleDeleteAllSubtasks(exchange);
-            } else if (path.matches("/subtasks/\\d+")) {
-                String[] pathParts = path.split("/");
-                int id = Integer.parseInt(pathParts[2]);
-
-                if ("GET".equals(method)) {
-                    handleGetSubtask(exchange, id);
-                } else if ("POST".equals(method)) {
-                    handleUpdateSubtask(exchange, id);
-                } else if ("DELETE".equals(method)) {
-                    handleDeleteSubtask(exchange, id);
-                } else {
-                    sendNotFound(exchange);
-                }
-            } else {
-                sendNotFound(exchange);
-            }
-        } catch (NumberFormatException e) {
-            sendBadRequest(exchange, "Invalid ID format");
-        } catch (Exception e) {
-            sendInternalError(exchange);
-        }
+    public void registerRoutes(Router router) {
+        router.add("GET", "/subtasks", (exchange, params) -> handleGetAllSubtasks(exchange))
+                .add("POST", "/subtasks", (exchange, params) -> handleCreateSubtask(exchange))
+                .add("DELETE", "/subtasks", (exchange, params) -> handleDeleteAllSubtasks(exchange))
+                .add("GET", "/subtasks/{id}", (exchange, params) -> handleGetSubtask(exchange, params[0]))
+                .add("POST", "/subtasks/{id}", (exchange, params) -> handleUpdateSubtask(exchange, params[0]))
+                .add("DELETE", "/subtasks/{id}", (exchange, params) -> handleDeleteSubtask(exchange, params[0]));
     }
 
     private void handleGetAllSubtasks(HttpExchange exchange) throws IOException {
-        List<Subtask> subtasks = manager.getAllSubtasks();
-        sendText(exchange, gson.toJson(subtasks), 200);
+        sendListOrPage(exchange, gson, manager::getVersion, manager::getAllSubtasks, manager::getSubtasksPage);
     }
 
     private void handleCreateSubtask(HttpExchange exchange) throws IOException {
@@ -103,7 +74,7 @@ public class SubtasksHandler extends BaseHttpHandler implements HttpHandler {
     private void handleGetSubtask(HttpExchange exchange, int id) throws IOException {
         Subtask subtask = manager.getSubtask(id);
         if (subtask != null) {
-            sendText(exchange, gson.toJson(subtask), 200);
+            sendTask(exchange, gson, subtask);
         } else {
             sendNotFound(exchange);
         }
@@ -3,7 +3,6 @@ package http.http.handlers;
 import com.google.gson.Gson;
 import com.google.gson.JsonSyntaxException;
 import com.sun.net.httpserver.HttpExchange;
-import com.sun.net.httpserver.HttpHandler;
 import managers.ManagerValidationException;
 import managers.TaskManager;
 import model.Task;
@@ -12,71 +11,27 @@ import java.io.IOException;
 import java.nio.charset.StandardCharsets;
 import java.time.Duration;
 import java.time.LocalDateTime;
-import java.util.List;
-import java.util.regex.Pattern;
 
-public class TasksHandler extends BaseHttpHandler implements HttpHandler {
+public class TasksHandler extends BaseHttpHandler {
     private final TaskManager manager;
     private final Gson gson;
-    private static final Pattern TASK_ID_PATTERN = Pattern.compile("/tasks/\\d+");
 
     public TasksHandler(TaskManager manager, Gson gson) {
         this.manager = manager;
         this.gson = gson;
     }
 
-    @Override
-    public void handle(HttpExchange exchange) throws IOException {
-        try {
-            String method = exchange.getRequestMethod();
-            String path = exchange.getRequestURI().getPath();
-
-            switch (method) {
-                case "GET":
-                    if (path.equals("/tasks")) {
-                        handleGetAllTasks(exchange);
-                    } else if (TASK_ID_PATTERN.matcher(path).matches()) {
-                        handleGetTask(exchange, extractId(path));
-                    } else {
-                        sendNotFound(exchange);
-                    }
-                    break;
-                case "POST":
-                    if (path.equals("/tasks")) {
-                        handleCreateTask(exchange);
-                    } else if (TASK_ID_PATTERN.matcher(path).matches()) {
-                        handleUpdateTask(exchange, extractId(path));
-                    } else {
-                        sendNotFound(exchange);
-                    }
-                    break;
-                case "DELETE":
-                    if (path.equals("/tasks")) {
-                        handleDeleteAllTasks(exchange);
-                    } else if (TASK_ID_PATTERN.matcher(path).matches()) {
-                        handleDeleteTask(exchange, extractId(path));
-                    } else {
-                        sendNotFound(exchange);
-                    }
-                    break;
-                default:
-                    sendNotAllowed(exchange);
-            }
-        } catch (NumberFormatException e) {
-            sendBadRequest(exchange, "Invalid ID format");
-        } catch (Exception e) {
-            sendInternalError(exchange);
-        }
-    }
-
-    private int extractId(String path) {
-        String[] parts = path.split("/");
-        return Integer.parseInt(parts[2]);
+    public void registerRoutes(Router router) {
+        router.add("GET", "/tasks", (exchange, params) -> handleGetAllTasks(exchange))
+                .add("POST", "/tasks", (exchange, params) -> handleCreateTask(exchange))
+                .add("DELETE", "/tasks", (exchange, params) -> handleDeleteAllTasks(exchange))
+                .add("GET", "/tasks/{id}", (exchange, params) -> handleGetTask(exchange, params[0]))
+                .add("POST", "/tasks/{id}", (exchange, params) -> handleUpdateTask(exchange, params[0]))
+                .add("DELETE", "/tasks/{id}", (exchange, params) -> handleDeleteTask(exchange, params[0]));
     }
 
     private void handleGetAllTasks(HttpExchange exchange) throws IOException {
-        List<Task> tasks = manager.getAllTasks();
-        sendText(exchange, gson.toJson(tasks), 200);
+        sendListOrPage(exchange, gson, manager::getVersion, manager::getAllTasks, manager::getTasksPage);
     }
 
     private void handleCreateTask(HttpExchange exchange) throws IOException {
@@ -119,7 +74,7 @@ public class TasksHandler extends BaseHttpHandler implements HttpHandler {
     private void handleGetTask(HttpExchange exchange, int id) throws IOException {
         Task task = manager.getTask(id);
         if (task != null) {
-            sendText(exchange, gson.toJson(task), 200);
+            sendTask(exchange, gson, task);
         } else {
             sendNotFound(exchange);
         }
@@ -0,0 +1,12 @@
+package http.http.server;
+
+// В многопоточных режимах обработчики работают с ConcurrentTaskManager:
+// сериализуются копии задач, снятые под блокировкой, а не живые объекты менеджера
+public enum ExecutionMode {
+    // Все запросы обрабатываются по очереди одним потоком
+    SINGLE_THREAD,
+    // Фиксированный пул потоков платформы с ограниченной очередью
+    BOUNDED_POOL,
+    // Каждый запрос в своём виртуальном потоке (нужен JDK 21)
+    VIRTUAL_THREADS
+}
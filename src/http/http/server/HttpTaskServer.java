@@ -4,24 +4,52 @@ import com.google.gson.Gson;
 import com.google.gson.GsonBuilder;
 import com.sun.net.httpserver.HttpServer;
 import http.http.handlers.*;
+import managers.ConcurrentTaskManager;
 import managers.Managers;
 import managers.TaskManager;
-import http.http.handlers.*;
+import managers.TaskManagerMonitor;
+import metrics.MBeans;
+import metrics.MetricsRegistry;
 import http.util.DurationAdapter;
 import http.util.LocalDateTimeAdapter;
+import http.util.TaskAdapter;
+import model.Epic;
+import model.Subtask;
+import model.Task;
 
+import javax.management.ObjectName;
 import java.io.IOException;
 import java.net.InetSocketAddress;
 import java.time.Duration;
 import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 
 public class HttpTaskServer {
     private static final int DEFAULT_PORT = 8080;
+    public static final int DEFAULT_POOL_SIZE = Math.max(4, Runtime.getRuntime().availableProcessors() * 2);
+    private static final int POOL_QUEUE_CAPACITY = 1024;
     private final HttpServer server;
     private final TaskManager manager;
+    private final ExecutionMode executionMode;
+    private final ExecutorService executor;
+    private final EventsHandler eventsHandler;
+    private final List<BaseHttpHandler> handlers;
+    private final MetricsRegistry metrics = new MetricsRegistry();
+    private final Router router;
+    private ObjectName serverMBean;
+    private ObjectName managerMBean;
     private static final Gson gson = new GsonBuilder()
             .registerTypeAdapter(LocalDateTime.class, new LocalDateTimeAdapter())
             .registerTypeAdapter(Duration.class, new DurationAdapter())
+            .registerTypeAdapter(Task.class, new TaskAdapter<>(Task::new))
+            .registerTypeAdapter(Epic.class, new TaskAdapter<>(Epic::new))
+            .registerTypeAdapter(Subtask.class, new TaskAdapter<>(Subtask::new))
             .create();
 
     /*Уважаемый Андрей!
@@ -37,32 +65,122 @@ public class HttpTaskServer {
     }
 
     public HttpTaskServer(TaskManager manager, int port) throws IOException {
-        this.manager = manager;
+        this(manager, port, ExecutionMode.SINGLE_THREAD);
+    }
+
+    public HttpTaskServer(TaskManager manager, int port, ExecutionMode executionMode) throws IOException {
+        this(manager, port, executionMode, DEFAULT_POOL_SIZE);
+    }
+
+    // В многопоточных режимах менеджер оборачивается в ConcurrentTaskManager,
+    // если он ещё не потокобезопасен
+    public HttpTaskServer(TaskManager manager, int port, ExecutionMode executionMode, int poolSize) throws IOException {
+        this.executionMode = executionMode;
+        this.manager = executionMode == ExecutionMode.SINGLE_THREAD || manager instanceof ConcurrentTaskManager
+                ? manager
+                : new ConcurrentTaskManager(manager);
+        this.executor = createExecutor(executionMode, poolSize);
         this.server = HttpServer.create(new InetSocketAddress(port), 0);
+        server.setExecutor(executor);
+        this.manager.enableMetrics(metrics);
+
+        // Все маршруты собираются в одно дерево при запуске, каждый со своими метриками
+        this.router = new Router(metrics);
+        TasksHandler tasksHandler = new TasksHandler(this.manager, gson);
+        SubtasksHandler subtasksHandler = new SubtasksHandler(this.manager, gson);
+        EpicsHandler epicsHandler = new EpicsHandler(this.manager, gson);
+        HistoryHandler historyHandler = new HistoryHandler(this.manager, gson);
+        PrioritizedHandler prioritizedHandler = new PrioritizedHandler(this.manager, gson);
+        ChangesHandler changesHandler = new ChangesHandler(this.manager, gson);
+        BatchHandler batchHandler = new BatchHandler(this.manager, gson);
+        MetricsHandler metricsHandler = new MetricsHandler(metrics);
+        this.eventsHandler = new EventsHandler(this.manager, gson);
+        tasksHandler.registerRoutes(router);
+        subtasksHandler.registerRoutes(router);
+        epicsHandler.registerRoutes(router);
+        historyHandler.registerRoutes(router);
+        prioritizedHandler.registerRoutes(router);
+        changesHandler.registerRoutes(router);
+        batchHandler.registerRoutes(router);
+        eventsHandler.registerRoutes(router);
+        metricsHandler.registerRoutes(router);
+        this.handlers = List.of(router, tasksHandler, subtasksHandler, epicsHandler, historyHandler,
+                prioritizedHandler, changesHandler, batchHandler, eventsHandler, metricsHandler);
+        server.createContext("/", router);
+    }
+
+    // При заполненной очереди пула запрос выполняется потоком-диспетчером,
+    // что притормаживает приём новых соединений вместо отказа клиенту.
+    // В режиме SINGLE_THREAD запросы идут через собственный поток, а не через поток-диспетчер:
+    // в этот же поток ставятся обращения к менеджеру из JMX
+    private static ExecutorService createExecutor(ExecutionMode executionMode, int poolSize) {
+        switch (executionMode) {
+            case SINGLE_THREAD:
+                return new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS, new LinkedBlockingQueue<>());
+            case BOUNDED_POOL:
+                if (poolSize <= 0) {
+                    throw new IllegalArgumentException("Размер пула должен быть положительным");
+                }
+                return new ThreadPoolExecutor(poolSize, poolSize, 0, TimeUnit.MILLISECONDS,
+                        new ArrayBlockingQueue<>(POOL_QUEUE_CAPACITY), new ThreadPoolExecutor.CallerRunsPolicy());
+            case VIRTUAL_THREADS:
+                return Executors.newVirtualThreadPerTaskExecutor();
+            default:
+                throw new IllegalArgumentException("Неизвестный режим: " + executionMode);
+        }
+    }
+
+    // Порог сжатия ответов gzip в байтах (BaseHttpHandler.COMPRESSION_DISABLED - не сжимать); задаётся до start()
+    public void setCompressionThreshold(int bytes) {
+        for (BaseHttpHandler handler : handlers) {
+            handler.setCompressionThreshold(bytes);
+        }
+    }
+
+    public TaskManager getManager() {
+        return manager;
+    }
+
+    public MetricsRegistry getMetrics() {
+        return metrics;
+    }
 
-        server.createContext("/tasks", new TasksHandler(manager, gson));
-        server.createContext("/subtasks", new SubtasksHandler(manager, gson));
-        server.createContext("/epics", new EpicsHandler(manager, gson));
-        server.createContext("/history", new HistoryHandler(manager, gson));
-        server.createContext("/prioritized", new PrioritizedHandler(manager, gson));
+    public ExecutionMode getExecutionMode() {
+        return executionMode;
     }
 
     public static Gson getGson() {
         return gson;
     }
 
+    // Сервер и его менеджер видны в JMX, пока сервер запущен:
+    // kanban:type=HttpTaskServer,name=<порт> и kanban:type=TaskManager,name=http-<порт>.
+    // Менеджер без блокировки (режим SINGLE_THREAD) обслуживается из JMX в том же потоке,
+    // что и запросы, поэтому чтение счётчиков и операции не пересекаются с обработкой запроса
     public void start() {
         server.start();
+        int port = server.getAddress().getPort();
+        serverMBean = MBeans.register(new HttpTaskServerMonitor(port, executionMode, executor,
+                router.getRecentRequests()), HttpTaskServerMonitor.TYPE, String.valueOf(port));
+        managerMBean = TaskManagerMonitor.register(manager, "http-" + port,
+                manager instanceof ConcurrentTaskManager ? Runnable::run : executor);
         System.out.println("HTTP-сервер запущен на порту " + server.getAddress().getPort());
     }
 
     public void stop() {
+        eventsHandler.close();
         server.stop(0);
+        if (serverMBean != null) {
+            MBeans.unregister(serverMBean);
+            MBeans.unregister(managerMBean);
+        }
+        executor.shutdown();
         System.out.println("HTTP-сервер остановлен");
     }
 
     public static void main(String[] args) throws IOException {
-        final HttpTaskServer server = new HttpTaskServer();
+        ExecutionMode executionMode = args.length > 0 ? ExecutionMode.valueOf(args[0]) : ExecutionMode.VIRTUAL_THREADS;
+        final HttpTaskServer server = new HttpTaskServer(Managers.getDefault(), DEFAULT_PORT, executionMode);
         server.start();
     }
 }
\ No newline at end of file
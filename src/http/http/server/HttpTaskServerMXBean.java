@@ -0,0 +1,21 @@
+package http.http.server;
+
+import java.util.List;
+
+// Атрибуты и операции HTTP-сервера в JMX
+public interface HttpTaskServerMXBean {
+
+    int getPort();
+
+    String getExecutionMode();
+
+    // Запросы, ожидающие свободного потока пула; 0 в режимах без очереди
+    int getQueueDepth();
+
+    // Потоки пула, занятые запросами; -1 в режимах без пула
+    int getActiveWorkers();
+
+    long getRequestCount();
+
+    List<String> dumpSlowestRequests(int limit);
+}
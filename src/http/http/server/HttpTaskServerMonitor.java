@@ -0,0 +1,54 @@
+package http.http.server;
+
+import http.http.handlers.RecentRequests;
+
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+
+class HttpTaskServerMonitor implements HttpTaskServerMXBean {
+    static final String TYPE = "HttpTaskServer";
+
+    private final int port;
+    private final ExecutionMode executionMode;
+    private final ExecutorService executor;
+    private final RecentRequests recentRequests;
+
+    HttpTaskServerMonitor(int port, ExecutionMode executionMode, ExecutorService executor,
+                          RecentRequests recentRequests) {
+        this.port = port;
+        this.executionMode = executionMode;
+        this.executor = executor;
+        this.recentRequests = recentRequests;
+    }
+
+    @Override
+    public int getPort() {
+        return port;
+    }
+
+    @Override
+    public String getExecutionMode() {
+        return executionMode.name();
+    }
+
+    @Override
+    public int getQueueDepth() {
+        return executor instanceof ThreadPoolExecutor ? ((ThreadPoolExecutor) executor).getQueue().size() : 0;
+    }
+
+    @Override
+    public int getActiveWorkers() {
+        return executor instanceof ThreadPoolExecutor ? ((ThreadPoolExecutor) executor).getActiveCount() : -1;
+    }
+
+    @Override
+    public long getRequestCount() {
+        return recentRequests.getTotal();
+    }
+
+    @Override
+    public List<String> dumpSlowestRequests(int limit) {
+        return recentRequests.slowest(limit);
+    }
+}
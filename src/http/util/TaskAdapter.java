@@ -0,0 +1,265 @@
+package http.util;
+
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+import model.Epic;
+import model.Subtask;
+import model.Task;
+import model.TaskStatus;
+
+import java.io.IOException;
+import java.time.DateTimeException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.function.Supplier;
+
+// Задачи читаются и пишутся напрямую через поля, без рефлексии Gson и упаковки чисел.
+// Формат прежний: поля подкласса идут первыми, null-поля не пишутся, duration - в минутах.
+// Запись выбирает формат по фактическому классу задачи, чтение - по запрошенному типу:
+// в JSON нет признака типа, поэтому нужный класс задаёт вызывающий (Task.class, Epic.class, Subtask.class)
+public class TaskAdapter<T extends Task> extends TypeAdapter<T> {
+    private static final DateTimeFormatter formatter = DateTimeFormatter.ISO_LOCAL_DATE_TIME;
+
+    private final Supplier<T> factory;
+
+    public TaskAdapter(Supplier<T> factory) {
+        this.factory = factory;
+    }
+
+    @Override
+    public void write(JsonWriter out, T value) throws IOException {
+        write(out, value, TaskFields.ALL);
+    }
+
+    // Запись только полей из набора (?fields=); с TaskFields.ALL - полный объект
+    public static void write(JsonWriter out, Task value, TaskFields fields) throws IOException {
+        if (value == null) {
+            out.nullValue();
+            return;
+        }
+        out.beginObject();
+        if (value instanceof Epic) {
+            Epic epic = (Epic) value;
+            if (fields.has(TaskFields.SUBTASK_IDS)) {
+                out.name("subtaskIds").beginArray();
+                for (int id : epic.getSubtaskIdSet().toArray()) {
+                    out.value(id);
+                }
+                out.endArray();
+            }
+            if (fields.has(TaskFields.END_TIME)) {
+                writeTime(out, "endTime", epic.getEndTime());
+            }
+        } else if (value instanceof Subtask && fields.has(TaskFields.EPIC_ID)) {
+            out.name("epicId").value(((Subtask) value).getEpicId());
+        }
+        if (fields.has(TaskFields.ID)) {
+            out.name("id").value(value.getId());
+        }
+        if (value.getTitle() != null && fields.has(TaskFields.TITLE)) {
+            out.name("title").value(value.getTitle());
+        }
+        if (value.getDescription() != null && fields.has(TaskFields.DESCRIPTION)) {
+            out.name("description").value(value.getDescription());
+        }
+        if (value.getStatus() != null && fields.has(TaskFields.STATUS)) {
+            out.name("taskStatus").value(value.getStatus().name());
+        }
+        if (value.getDuration() != null && fields.has(TaskFields.DURATION)) {
+            out.name("duration").value(value.getDuration().toMinutes());
+        }
+        if (fields.has(TaskFields.START_TIME)) {
+            writeTime(out, "startTime", value.getStartTime());
+        }
+        out.endObject();
+    }
+
+    @Override
+    public T read(JsonReader in) throws IOException {
+        if (in.peek() == JsonToken.NULL) {
+            in.nextNull();
+            return null;
+        }
+        T task = factory.get();
+        in.beginObject();
+        while (in.hasNext()) {
+            String name = in.nextName();
+            if (in.peek() == JsonToken.NULL) {
+                in.nextNull();
+                readNull(task, name);
+                continue;
+            }
+            switch (name) {
+                case "id":
+                    task.setId(in.nextInt());
+                    break;
+                case "title":
+                    task.setTitle(in.nextString());
+                    break;
+                case "description":
+                    task.setDescription(in.nextString());
+                    break;
+                case "taskStatus":
+                    setStatus(task, statusOf(in.nextString()));
+                    break;
+                case "duration":
+                    task.setDuration(Duration.ofMinutes(in.nextLong()));
+                    break;
+                case "startTime":
+                    task.setStartTime(parseTime(in.nextString()));
+                    break;
+                case "epicId":
+                    if (task instanceof Subtask) {
+                        ((Subtask) task).setEpicId(in.nextInt());
+                    } else {
+                        in.skipValue();
+                    }
+                    break;
+                case "subtaskIds":
+                    if (task instanceof Epic) {
+                        readSubtaskIds(in, (Epic) task);
+                    } else {
+                        in.skipValue();
+                    }
+                    break;
+                case "endTime":
+                    if (task instanceof Epic) {
+                        ((Epic) task).setEndTime(parseTime(in.nextString()));
+                    } else {
+                        in.skipValue();
+                    }
+                    break;
+                default:
+                    in.skipValue();
+            }
+        }
+        in.endObject();
+        return task;
+    }
+
+    private static void writeTime(JsonWriter out, String name, LocalDateTime value) throws IOException {
+        if (value != null) {
+            out.name(name).value(formatTime(value));
+        }
+    }
+
+    // Быстрый путь для обычного вида yyyy-MM-ddTHH:mm:ss (без долей секунды, год из четырёх цифр);
+    // остальное - через ISO_LOCAL_DATE_TIME, результат тот же
+    static String formatTime(LocalDateTime value) {
+        int year = value.getYear();
+        if (value.getNano() != 0 || year < 0 || year > 9999) {
+            return value.format(formatter);
+        }
+        char[] chars = new char[19];
+        putDigits(chars, 0, year, 4);
+        chars[4] = '-';
+        putDigits(chars, 5, value.getMonthValue(), 2);
+        chars[7] = '-';
+        putDigits(chars, 8, value.getDayOfMonth(), 2);
+        chars[10] = 'T';
+        putDigits(chars, 11, value.getHour(), 2);
+        chars[13] = ':';
+        putDigits(chars, 14, value.getMinute(), 2);
+        chars[16] = ':';
+        putDigits(chars, 17, value.getSecond(), 2);
+        return new String(chars);
+    }
+
+    static LocalDateTime parseTime(String text) {
+        if (text.length() == 19 && text.charAt(4) == '-' && text.charAt(7) == '-' && text.charAt(10) == 'T'
+                && text.charAt(13) == ':' && text.charAt(16) == ':') {
+            int year = digits(text, 0, 4);
+            int month = digits(text, 5, 2);
+            int day = digits(text, 8, 2);
+            int hour = digits(text, 11, 2);
+            int minute = digits(text, 14, 2);
+            int second = digits(text, 17, 2);
+            if ((year | month | day | hour | minute | second) >= 0) {
+                try {
+                    return LocalDateTime.of(year, month, day, hour, minute, second);
+                } catch (DateTimeException e) {
+                    // Недопустимая дата - ошибку с прежним типом и текстом даст разбор форматтером
+                }
+            }
+        }
+        return LocalDateTime.parse(text, formatter);
+    }
+
+    private static void putDigits(char[] chars, int offset, int value, int count) {
+        for (int i = offset + count - 1; i >= offset; i--) {
+            chars[i] = (char) ('0' + value % 10);
+            value /= 10;
+        }
+    }
+
+    // -1, если в диапазоне есть не цифра
+    private static int digits(String text, int offset, int count) {
+        int value = 0;
+        for (int i = offset; i < offset + count; i++) {
+            char c = text.charAt(i);
+            if (c < '0' || c > '9') {
+                return -1;
+            }
+            value = value * 10 + (c - '0');
+        }
+        return value;
+    }
+
+    private static void readSubtaskIds(JsonReader in, Epic epic) throws IOException {
+        epic.clearSubtaskIds();
+        in.beginArray();
+        while (in.hasNext()) {
+            epic.addSubtaskId(in.nextInt());
+        }
+        in.endArray();
+    }
+
+    // Явный null в JSON обнуляет поле, как и при чтении через рефлексию
+    private static void readNull(Task task, String name) {
+        switch (name) {
+            case "title":
+                task.setTitle(null);
+                break;
+            case "description":
+                task.setDescription(null);
+                break;
+            case "taskStatus":
+                setStatus(task, null);
+                break;
+            case "duration":
+                task.setDuration(null);
+                break;
+            case "startTime":
+                task.setStartTime(null);
+                break;
+            case "endTime":
+                if (task instanceof Epic) {
+                    ((Epic) task).setEndTime(null);
+                }
+                break;
+            default:
+                break;
+        }
+    }
+
+    // Статус эпика вычисляется менеджером, setStatus у эпика лишь предупреждает
+    private static void setStatus(Task task, TaskStatus status) {
+        if (task instanceof Epic) {
+            ((Epic) task).updateStatus(status);
+        } else {
+            task.setStatus(status);
+        }
+    }
+
+    // Неизвестное значение читается как null - так же, как стандартный адаптер перечислений Gson
+    private static TaskStatus statusOf(String name) {
+        try {
+            return TaskStatus.valueOf(name);
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,89 @@
+package http.util;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Набор полей задачи из параметра ?fields=id,title,taskStatus. Строка разбирается один раз
+// в битовую маску и запоминается, при записи каждой задачи проверяются только биты.
+// Имена полей - те же, что в JSON; поле, которого у типа нет (epicId у эпика), просто не пишется
+public final class TaskFields {
+    static final int ID = 1;
+    static final int TITLE = 1 << 1;
+    static final int DESCRIPTION = 1 << 2;
+    static final int STATUS = 1 << 3;
+    static final int DURATION = 1 << 4;
+    static final int START_TIME = 1 << 5;
+    static final int EPIC_ID = 1 << 6;
+    static final int SUBTASK_IDS = 1 << 7;
+    static final int END_TIME = 1 << 8;
+
+    private static final String[] NAMES = {
+            "id", "title", "description", "taskStatus", "duration", "startTime", "epicId", "subtaskIds", "endTime"
+    };
+    private static final int MAX_COMPILED = 256;
+    private static final Map<String, TaskFields> compiled = new ConcurrentHashMap<>();
+
+    public static final TaskFields ALL = new TaskFields((1 << NAMES.length) - 1);
+
+    private final int mask;
+
+    private TaskFields(int mask) {
+        this.mask = mask;
+    }
+
+    // null или пустая строка - все поля; неизвестное имя - IllegalArgumentException
+    public static TaskFields parse(String spec) {
+        if (spec == null || spec.isEmpty()) {
+            return ALL;
+        }
+        TaskFields fields = compiled.get(spec);
+        if (fields == null) {
+            fields = compile(spec);
+            if (compiled.size() < MAX_COMPILED) {
+                compiled.putIfAbsent(spec, fields);
+            }
+        }
+        return fields;
+    }
+
+    private static TaskFields compile(String spec) {
+        int mask = 0;
+        for (String name : spec.split(",")) {
+            String trimmed = name.trim();
+            if (trimmed.isEmpty()) {
+                continue;
+            }
+            int bit = bitOf(trimmed);
+            if (bit == 0) {
+                throw new IllegalArgumentException("Unknown field: " + trimmed);
+            }
+            mask |= bit;
+        }
+        if (mask == 0) {
+            throw new IllegalArgumentException("Empty fields");
+        }
+        return mask == ALL.mask ? ALL : new TaskFields(mask);
+    }
+
+    private static int bitOf(String name) {
+        for (int i = 0; i < NAMES.length; i++) {
+            if (NAMES[i].equals(name)) {
+                return 1 << i;
+            }
+        }
+        return 0;
+    }
+
+    boolean has(int field) {
+        return (mask & field) != 0;
+    }
+
+    public boolean isAll() {
+        return this == ALL;
+    }
+
+    // Краткое обозначение набора для ключей кэша и ETag
+    public String key() {
+        return Integer.toHexString(mask);
+    }
+}
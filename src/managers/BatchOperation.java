@@ -0,0 +1,66 @@
+package managers;
+
+import model.Subtask;
+import model.Task;
+
+// Одна операция пакета. Подзадача может ссылаться на эпик, создаваемый этим же пакетом,
+// через epicRef - номер операции создания эпика (её id до применения пакета ещё неизвестен)
+public class BatchOperation {
+    public static final int NO_REF = -1;
+
+    public enum Action {
+        CREATE,
+        UPDATE,
+        DELETE
+    }
+
+    private final Action action;
+    private final TaskType type;
+    private final Task task;
+    private final int id;
+    private final int epicRef;
+
+    private BatchOperation(Action action, TaskType type, Task task, int id, int epicRef) {
+        this.action = action;
+        this.type = type;
+        this.task = task;
+        this.id = id;
+        this.epicRef = epicRef;
+    }
+
+    public static BatchOperation create(Task task) {
+        return new BatchOperation(Action.CREATE, task.getType(), task, 0, NO_REF);
+    }
+
+    public static BatchOperation createSubtask(Subtask subtask, int epicRef) {
+        return new BatchOperation(Action.CREATE, TaskType.SUBTASK, subtask, 0, epicRef);
+    }
+
+    public static BatchOperation update(Task task) {
+        return new BatchOperation(Action.UPDATE, task.getType(), task, task.getId(), NO_REF);
+    }
+
+    public static BatchOperation delete(TaskType type, int id) {
+        return new BatchOperation(Action.DELETE, type, null, id, NO_REF);
+    }
+
+    public Action getAction() {
+        return action;
+    }
+
+    public TaskType getType() {
+        return type;
+    }
+
+    public Task getTask() {
+        return task;
+    }
+
+    public int getId() {
+        return id;
+    }
+
+    public int getEpicRef() {
+        return epicRef;
+    }
+}
@@ -0,0 +1,220 @@
+package managers;
+
+import model.Epic;
+import model.Subtask;
+import model.Task;
+import util.IntObjectMap;
+import util.IntSet;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+// Проверка пакета до его применения: операции проходятся по порядку поверх текущего состояния
+// менеджера (созданное и удалённое пакетом учитывается без копирования данных менеджера),
+// а пересечения по времени проверяются для итоговых интервалов пакета одним проходом после сортировки
+final class BatchPlan {
+
+    private static final class Interval {
+        final LocalDateTime start;
+        final LocalDateTime end;
+        final int operationIndex;
+
+        Interval(LocalDateTime start, LocalDateTime end, int operationIndex) {
+            this.start = start;
+            this.end = end;
+            this.operationIndex = operationIndex;
+        }
+    }
+
+    private final InMemoryTaskManager manager;
+    private final List<BatchResult.OperationResult> failures = new ArrayList<>();
+    private final IntSet deletedTasks = new IntSet();
+    private final IntSet deletedEpics = new IntSet();
+    private final IntSet deletedSubtasks = new IntSet();
+    private final IntSet createdEpicOperations = new IntSet();
+    // Итоговые интервалы существующих задач, затронутых пакетом (interval.start == null - интервала нет)
+    private final IntObjectMap<Interval> existingIntervals = new IntObjectMap<>();
+    // Интервалы задач, создаваемых пакетом, по номеру операции
+    private final IntObjectMap<Interval> createdIntervals = new IntObjectMap<>();
+    // Номера операций создания подзадач по id существующего эпика - на случай удаления эпика тем же пакетом
+    private final IntObjectMap<IntSet> createdSubtasksByEpic = new IntObjectMap<>();
+
+    BatchPlan(InMemoryTaskManager manager) {
+        this.manager = manager;
+    }
+
+    // Пустой список - пакет можно применять
+    List<BatchResult.OperationResult> validate(List<BatchOperation> operations) {
+        for (int i = 0; i < operations.size(); i++) {
+            BatchOperation operation = operations.get(i);
+            if (operation == null || operation.getAction() == null || operation.getType() == null) {
+                fail(i, BatchResult.ErrorType.INVALID, "Не указано действие или тип");
+                continue;
+            }
+            switch (operation.getAction()) {
+                case CREATE:
+                    checkCreate(i, operation);
+                    break;
+                case UPDATE:
+                    checkUpdate(i, operation);
+                    break;
+                case DELETE:
+                    checkDelete(i, operation);
+                    break;
+            }
+        }
+        if (failures.isEmpty()) {
+            checkOverlaps();
+        }
+        return failures;
+    }
+
+    private void checkCreate(int index, BatchOperation operation) {
+        Task task = operation.getTask();
+        if (task == null || task.getType() != operation.getType()) {
+            fail(index, BatchResult.ErrorType.INVALID, "Задача не соответствует типу операции");
+            return;
+        }
+        if (task.getId() != 0) {
+            fail(index, BatchResult.ErrorType.INVALID, "У создаваемой задачи не должно быть id");
+            return;
+        }
+        switch (operation.getType()) {
+            case EPIC:
+                createdEpicOperations.add(index);
+                return;
+            case SUBTASK:
+                int epicRef = operation.getEpicRef();
+                if (epicRef != BatchOperation.NO_REF) {
+                    if (epicRef >= index || !createdEpicOperations.contains(epicRef)) {
+                        fail(index, BatchResult.ErrorType.INVALID, "epicRef должен указывать на создание эпика ранее в пакете");
+                        return;
+                    }
+                } else {
+                    int epicId = ((Subtask) task).getEpicId();
+                    if (!epicExists(epicId)) {
+                        fail(index, BatchResult.ErrorType.NOT_FOUND, "Эпик " + epicId + " не найден");
+                        return;
+                    }
+                    IntSet created = createdSubtasksByEpic.get(epicId);
+                    if (created == null) {
+                        created = new IntSet();
+                        createdSubtasksByEpic.put(epicId, created);
+                    }
+                    created.add(index);
+                }
+                createdIntervals.put(index, intervalOf(task, index));
+                return;
+            default:
+                createdIntervals.put(index, intervalOf(task, index));
+        }
+    }
+
+    private void checkUpdate(int index, BatchOperation operation) {
+        Task task = operation.getTask();
+        if (task == null || task.getType() != operation.getType()) {
+            fail(index, BatchResult.ErrorType.INVALID, "Задача не соответствует типу операции");
+            return;
+        }
+        int id = task.getId();
+        if (!exists(operation.getType(), id)) {
+            fail(index, BatchResult.ErrorType.NOT_FOUND, operation.getType() + " " + id + " не найден");
+            return;
+        }
+        if (operation.getType() == TaskType.SUBTASK && !epicExists(((Subtask) task).getEpicId())) {
+            fail(index, BatchResult.ErrorType.NOT_FOUND, "Эпик " + ((Subtask) task).getEpicId() + " не найден");
+            return;
+        }
+        if (operation.getType() != TaskType.EPIC) {
+            existingIntervals.put(id, intervalOf(task, index));
+        }
+    }
+
+    private void checkDelete(int index, BatchOperation operation) {
+        int id = operation.getId();
+        if (!exists(operation.getType(), id)) {
+            fail(index, BatchResult.ErrorType.NOT_FOUND, operation.getType() + " " + id + " не найден");
+            return;
+        }
+        switch (operation.getType()) {
+            case TASK:
+                deletedTasks.add(id);
+                existingIntervals.put(id, new Interval(null, null, index));
+                break;
+            case SUBTASK:
+                deletedSubtasks.add(id);
+                existingIntervals.put(id, new Interval(null, null, index));
+                break;
+            case EPIC:
+                deletedEpics.add(id);
+                manager.epics.get(id).getSubtaskIdSet()
+                        .forEach(subtaskId -> existingIntervals.put(subtaskId, new Interval(null, null, index)));
+                IntSet created = createdSubtasksByEpic.remove(id);
+                if (created != null) {
+                    created.forEach(createdIntervals::remove);
+                }
+                break;
+        }
+    }
+
+    private boolean exists(TaskType type, int id) {
+        switch (type) {
+            case TASK:
+                return manager.tasks.containsKey(id) && !deletedTasks.contains(id);
+            case EPIC:
+                return epicExists(id);
+            default:
+                Subtask subtask = manager.subtasks.get(id);
+                return subtask != null && !deletedSubtasks.contains(id) && epicExists(subtask.getEpicId());
+        }
+    }
+
+    private boolean epicExists(int id) {
+        Epic epic = manager.epics.get(id);
+        return epic != null && !deletedEpics.contains(id);
+    }
+
+    private static Interval intervalOf(Task task, int index) {
+        if (task.getStartTime() == null || task.getEndTime() == null) {
+            return new Interval(null, null, index);
+        }
+        return new Interval(task.getStartTime(), task.getEndTime(), index);
+    }
+
+    // Интервалы пакета сортируются и проверяются друг с другом за один проход, затем каждый -
+    // по индексу менеджера без учёта прежних интервалов задач, которые пакет меняет или удаляет
+    private void checkOverlaps() {
+        List<Interval> intervals = new ArrayList<>(existingIntervals.size() + createdIntervals.size());
+        for (Interval interval : existingIntervals.values()) {
+            if (interval.start != null) {
+                intervals.add(interval);
+            }
+        }
+        for (Interval interval : createdIntervals.values()) {
+            if (interval.start != null) {
+                intervals.add(interval);
+            }
+        }
+        intervals.sort(Comparator.comparing((Interval interval) -> interval.start));
+
+        IntSet replaced = new IntSet();
+        existingIntervals.forEachKey(replaced::add);
+        LocalDateTime maxEnd = null;
+        for (Interval interval : intervals) {
+            if (maxEnd != null && !interval.start.isAfter(maxEnd)) {
+                fail(interval.operationIndex, BatchResult.ErrorType.OVERLAP, "Задача пересекается по времени с задачей из пакета");
+            } else if (manager.hasIndexedOverlap(interval.start, interval.end, replaced)) {
+                fail(interval.operationIndex, BatchResult.ErrorType.OVERLAP, "Задача пересекается по времени с существующей задачей");
+            }
+            if (maxEnd == null || interval.end.isAfter(maxEnd)) {
+                maxEnd = interval.end;
+            }
+        }
+    }
+
+    private void fail(int index, BatchResult.ErrorType error, String message) {
+        failures.add(new BatchResult.OperationResult(index, BatchResult.Status.FAILED, 0, error, message));
+    }
+}
@@ -0,0 +1,72 @@
+package managers;
+
+import java.util.List;
+
+// Пакет применяется целиком или не применяется вовсе: при любой ошибке applied = false,
+// у ошибочных операций статус FAILED, у остальных - NOT_APPLIED
+public class BatchResult {
+
+    public enum Status {
+        APPLIED,
+        FAILED,
+        NOT_APPLIED
+    }
+
+    public enum ErrorType {
+        INVALID,
+        NOT_FOUND,
+        OVERLAP
+    }
+
+    public static class OperationResult {
+        private final int index;
+        private final Status status;
+        private final int id;
+        private final ErrorType error;
+        private final String message;
+
+        public OperationResult(int index, Status status, int id, ErrorType error, String message) {
+            this.index = index;
+            this.status = status;
+            this.id = id;
+            this.error = error;
+            this.message = message;
+        }
+
+        public int getIndex() {
+            return index;
+        }
+
+        public Status getStatus() {
+            return status;
+        }
+
+        public int getId() {
+            return id;
+        }
+
+        public ErrorType getError() {
+            return error;
+        }
+
+        public String getMessage() {
+            return message;
+        }
+    }
+
+    private final boolean applied;
+    private final List<OperationResult> results;
+
+    public BatchResult(boolean applied, List<OperationResult> results) {
+        this.applied = applied;
+        this.results = results;
+    }
+
+    public boolean isApplied() {
+        return applied;
+    }
+
+    public List<OperationResult> getResults() {
+        return results;
+    }
+}
@@ -0,0 +1,84 @@
+package managers;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.IntConsumer;
+
+// Выдаёт id из заранее зарезервированного диапазона: внутри диапазона без блокировок,
+// блокировка берётся только при резервировании следующего диапазона.
+// Граница резерва передаётся слушателю, и после перезапуска выдача продолжается за ней,
+// поэтому id из выданного, но не сохранённого диапазона повторно не используются
+public class BlockIdAllocator implements IdAllocator {
+    public static final int DEFAULT_BLOCK_SIZE = 1024;
+
+    private static final class Block {
+        final AtomicInteger next;
+        final int last;
+
+        Block(int first, int last) {
+            this.next = new AtomicInteger(first);
+            this.last = last;
+        }
+    }
+
+    private final int blockSize;
+    private volatile Block block = new Block(1, 0);
+    private int leasedUpTo;
+    private IntConsumer leaseListener = highWaterMark -> {
+    };
+
+    public BlockIdAllocator() {
+        this(DEFAULT_BLOCK_SIZE);
+    }
+
+    public BlockIdAllocator(int blockSize) {
+        if (blockSize <= 0) {
+            throw new IllegalArgumentException("Размер диапазона id должен быть положительным");
+        }
+        this.blockSize = blockSize;
+    }
+
+    @Override
+    public int nextId() {
+        while (true) {
+            Block current = block;
+            int id = current.next.getAndIncrement();
+            if (id <= current.last) {
+                return id;
+            }
+            lease(current);
+        }
+    }
+
+    private synchronized void lease(Block exhausted) {
+        if (block != exhausted) {
+            return;
+        }
+        int first = leasedUpTo + 1;
+        int last = (int) Math.min((long) leasedUpTo + blockSize, Integer.MAX_VALUE);
+        if (first > last) {
+            throw new IllegalStateException("Идентификаторы задач исчерпаны");
+        }
+        leaseListener.accept(last);
+        leasedUpTo = last;
+        block = new Block(first, last);
+    }
+
+    @Override
+    public synchronized void reserve(int id) {
+        if (id > leasedUpTo) {
+            leasedUpTo = id;
+            block = new Block(id + 1, id);
+        } else {
+            block.next.accumulateAndGet(id + 1, Math::max);
+        }
+    }
+
+    @Override
+    public synchronized void setLeaseListener(IntConsumer listener) {
+        this.leaseListener = listener;
+    }
+
+    public synchronized int getLeasedUpTo() {
+        return leasedUpTo;
+    }
+}
@@ -0,0 +1,36 @@
+package managers;
+
+public class Change {
+    private final long version;
+    private final ChangeType type;
+    private final TaskType taskType;
+    private final int id;
+
+    public Change(long version, ChangeType type, TaskType taskType, int id) {
+        this.version = version;
+        this.type = type;
+        this.taskType = taskType;
+        this.id = id;
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    public ChangeType getType() {
+        return type;
+    }
+
+    public TaskType getTaskType() {
+        return taskType;
+    }
+
+    public int getId() {
+        return id;
+    }
+
+    @Override
+    public String toString() {
+        return "Change{version=" + version + ", type=" + type + ", taskType=" + taskType + ", id=" + id + '}';
+    }
+}
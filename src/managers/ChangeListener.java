@@ -0,0 +1,8 @@
+package managers;
+
+// Вызывается менеджером после каждого изменения, в потоке, который его выполнил
+// (под блокировкой записи, если менеджер обёрнут в ConcurrentTaskManager), поэтому не должен блокироваться
+@FunctionalInterface
+public interface ChangeListener {
+    void onChange(Change change);
+}
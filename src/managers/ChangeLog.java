@@ -0,0 +1,85 @@
+package managers;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+// Кольцевой буфер последних изменений. Записи хранятся в примитивных массивах и идут
+// по неубыванию версии, поэтому начало выборки находится двоичным поиском
+final class ChangeLog {
+    static final int DEFAULT_CAPACITY = 10_000;
+
+    private static final ChangeType[] CHANGE_TYPES = ChangeType.values();
+    private static final TaskType[] TASK_TYPES = TaskType.values();
+
+    private final String epoch = Long.toHexString(ThreadLocalRandom.current().nextLong());
+    private final long[] versions;
+    private final byte[] changeTypes;
+    private final byte[] taskTypes;
+    private final int[] ids;
+    private int head;
+    private int size;
+    // Версия последней вытесненной записи: изменения после неё все на месте
+    private long truncatedUpTo;
+
+    ChangeLog() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    ChangeLog(int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Размер журнала изменений должен быть положительным");
+        }
+        versions = new long[capacity];
+        changeTypes = new byte[capacity];
+        taskTypes = new byte[capacity];
+        ids = new int[capacity];
+    }
+
+    void add(long version, ChangeType type, TaskType taskType, int id) {
+        int index = (head + size) % versions.length;
+        if (size == versions.length) {
+            truncatedUpTo = versions[head];
+            head = (head + 1) % versions.length;
+        } else {
+            size++;
+        }
+        versions[index] = version;
+        changeTypes[index] = (byte) type.ordinal();
+        taskTypes[index] = (byte) taskType.ordinal();
+        ids[index] = id;
+    }
+
+    // Забыть все записи: изменения до текущей версии больше не восстановить
+    void reset(long version) {
+        head = 0;
+        size = 0;
+        truncatedUpTo = version;
+    }
+
+    ChangeSet since(long since, long currentVersion) {
+        if (since < truncatedUpTo || since > currentVersion) {
+            return new ChangeSet(epoch, currentVersion, true, new ArrayList<>());
+        }
+        int low = 0;
+        int high = size;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (versions[(head + middle) % versions.length] <= since) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        List<Change> changes = new ArrayList<>(size - low);
+        for (int i = low; i < size; i++) {
+            int index = (head + i) % versions.length;
+            changes.add(new Change(versions[index], CHANGE_TYPES[changeTypes[index]], TASK_TYPES[taskTypes[index]], ids[index]));
+        }
+        return new ChangeSet(epoch, currentVersion, false, changes);
+    }
+
+    String getEpoch() {
+        return epoch;
+    }
+}
@@ -0,0 +1,36 @@
+package managers;
+
+import java.util.List;
+
+// Изменения после запрошенной версии. Если часть из них уже вытеснена из журнала изменений,
+// resyncRequired = true и клиент должен заново загрузить списки целиком
+public class ChangeSet {
+    private final String epoch;
+    private final long version;
+    private final boolean resyncRequired;
+    private final List<Change> changes;
+
+    public ChangeSet(String epoch, long version, boolean resyncRequired, List<Change> changes) {
+        this.epoch = epoch;
+        this.version = version;
+        this.resyncRequired = resyncRequired;
+        this.changes = changes;
+    }
+
+    // Метка экземпляра менеджера: версии после перезапуска начинаются заново
+    public String getEpoch() {
+        return epoch;
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    public boolean isResyncRequired() {
+        return resyncRequired;
+    }
+
+    public List<Change> getChanges() {
+        return changes;
+    }
+}
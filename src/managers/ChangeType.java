@@ -0,0 +1,9 @@
+package managers;
+
+public enum ChangeType {
+    CREATED,
+    UPDATED,
+    DELETED,
+    // Удалены все задачи типа, id в записи не используется
+    CLEARED
+}
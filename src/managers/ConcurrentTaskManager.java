@@ -0,0 +1,306 @@
+package managers;
+
+import metrics.MetricsRegistry;
+import model.Epic;
+import model.Subtask;
+import model.Task;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.locks.StampedLock;
+import java.util.function.Supplier;
+
+// Потокобезопасная обёртка над любым TaskManager.
+// Списки читаются оптимистично (StampedLock.tryOptimisticRead) и перечитываются под блокировкой
+// чтения, только если между началом и концом чтения прошла запись. Изменения выполняются под
+// эксклюзивной блокировкой: каждое из них затрагивает общие для всех задач структуры (индекс
+// времени, приоритетный список, агрегаты эпика), поэтому инварианты проверяются целиком.
+public class ConcurrentTaskManager implements TaskManager {
+    private final TaskManager delegate;
+    private final StampedLock lock = new StampedLock();
+    // Не null для FileBackedTaskManager в режиме GROUP: запись на диск ждётся после снятия блокировки,
+    // иначе писатели шли бы по одному и каждая пачка состояла бы из одной записи
+    private final FileBackedTaskManager groupCommit;
+
+    public ConcurrentTaskManager(TaskManager delegate) {
+        this.delegate = delegate;
+        this.groupCommit = delegate instanceof FileBackedTaskManager
+                && ((FileBackedTaskManager) delegate).getDurability() == Durability.GROUP
+                ? (FileBackedTaskManager) delegate
+                : null;
+    }
+
+    public TaskManager getDelegate() {
+        return delegate;
+    }
+
+    // Задачи делегата меняются писателями на месте (пересчёт эпика, список подзадач), а вызывающий
+    // сериализует результат уже без блокировки. Поэтому чтение возвращает копии, снятые под блокировкой
+    @SuppressWarnings("unchecked")
+    private static <T extends Task> T copy(T task) {
+        if (task instanceof Epic) {
+            return (T) new Epic((Epic) task);
+        }
+        if (task instanceof Subtask) {
+            return (T) new Subtask((Subtask) task);
+        }
+        return task == null ? null : (T) new Task(task);
+    }
+
+    private static <T extends Task> List<T> copies(List<T> tasks) {
+        List<T> result = new ArrayList<>(tasks.size());
+        for (T task : tasks) {
+            result.add(copy(task));
+        }
+        return result;
+    }
+
+    private static <T extends Task> Page<T> copies(Page<T> page) {
+        return new Page<>(copies(page.getItems()), page.getNextCursor());
+    }
+
+    // Оптимистичное чтение подходит только для операций без побочных эффектов, которые обходят
+    // плотные массивы ограниченного размера: если чтение наложилось на запись, результат выбрасывается.
+    // Поиск по ключу в хеш-таблице идёт только под read(): в промежуточном состоянии таблицы проба
+    // может не найти свободную ячейку
+    private <T> T optimisticRead(Supplier<T> reader) {
+        long stamp = lock.tryOptimisticRead();
+        if (stamp != 0) {
+            try {
+                T result = reader.get();
+                if (lock.validate(stamp)) {
+                    return result;
+                }
+            } catch (RuntimeException e) {
+                if (lock.validate(stamp)) {
+                    throw e;
+                }
+            }
+        }
+        return read(reader);
+    }
+
+    private <T> T read(Supplier<T> reader) {
+        long stamp = lock.readLock();
+        try {
+            return reader.get();
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    private <T> T write(Supplier<T> writer) {
+        long stamp = lock.writeLock();
+        if (groupCommit != null) {
+            groupCommit.deferWrites();
+        }
+        boolean completed = false;
+        try {
+            T result = writer.get();
+            completed = true;
+            return result;
+        } finally {
+            lock.unlockWrite(stamp);
+            if (groupCommit != null) {
+                groupCommit.finishDeferredWrites(completed);
+            }
+        }
+    }
+
+    private void write(Runnable writer) {
+        write(() -> {
+            writer.run();
+            return null;
+        });
+    }
+
+    @Override
+    public Task createTask(Task task) {
+        return write(() -> delegate.createTask(task));
+    }
+
+    @Override
+    public List<Task> getAllTasks() {
+        return optimisticRead(() -> copies(delegate.getAllTasks()));
+    }
+
+    @Override
+    public void deleteTask(int id) {
+        write(() -> delegate.deleteTask(id));
+    }
+
+    @Override
+    public void deleteAllTasks() {
+        write(delegate::deleteAllTasks);
+    }
+
+    // Получение по id пишет в историю (она синхронизирована отдельно), поэтому идёт под блокировкой чтения
+    @Override
+    public Task getTask(int id) {
+        return read(() -> copy(delegate.getTask(id)));
+    }
+
+    @Override
+    public void updateTask(Task task) {
+        write(() -> delegate.updateTask(task));
+    }
+
+    @Override
+    public Epic createEpic(Epic epic) {
+        return write(() -> delegate.createEpic(epic));
+    }
+
+    @Override
+    public List<Epic> getAllEpics() {
+        return optimisticRead(() -> copies(delegate.getAllEpics()));
+    }
+
+    @Override
+    public void deleteEpic(int id) {
+        write(() -> delegate.deleteEpic(id));
+    }
+
+    @Override
+    public void deleteAllEpics() {
+        write(delegate::deleteAllEpics);
+    }
+
+    @Override
+    public Epic getEpic(int id) {
+        return read(() -> copy(delegate.getEpic(id)));
+    }
+
+    @Override
+    public void updateEpic(Epic epic) {
+        write(() -> delegate.updateEpic(epic));
+    }
+
+    @Override
+    public Subtask createSubtask(Subtask subtask) {
+        return write(() -> delegate.createSubtask(subtask));
+    }
+
+    @Override
+    public void updateSubtask(Subtask subtask) {
+        write(() -> delegate.updateSubtask(subtask));
+    }
+
+    @Override
+    public void deleteSubtask(int id) {
+        write(() -> delegate.deleteSubtask(id));
+    }
+
+    @Override
+    public void deleteAllSubtasks() {
+        write(delegate::deleteAllSubtasks);
+    }
+
+    @Override
+    public List<Subtask> getSubtasksByEpic(int epicId) {
+        return read(() -> copies(delegate.getSubtasksByEpic(epicId)));
+    }
+
+    @Override
+    public List<Subtask> getAllSubtasks() {
+        return optimisticRead(() -> copies(delegate.getAllSubtasks()));
+    }
+
+    @Override
+    public Subtask getSubtask(int id) {
+        return read(() -> copy(delegate.getSubtask(id)));
+    }
+
+    // Сама история синхронизирована, но задачи в ней меняются писателями - копии снимаются под чтением
+    @Override
+    public List<Task> getHistory() {
+        return read(() -> copies(delegate.getHistory()));
+    }
+
+    // Обход дерева во время перестройки может зациклиться, поэтому только под блокировкой чтения
+    @Override
+    public List<Task> getPrioritizedTasks() {
+        return read(() -> copies(delegate.getPrioritizedTasks()));
+    }
+
+    @Override
+    public Page<Task> getTasksPage(String cursor, int limit) {
+        return optimisticRead(() -> copies(delegate.getTasksPage(cursor, limit)));
+    }
+
+    @Override
+    public Page<Epic> getEpicsPage(String cursor, int limit) {
+        return optimisticRead(() -> copies(delegate.getEpicsPage(cursor, limit)));
+    }
+
+    @Override
+    public Page<Subtask> getSubtasksPage(String cursor, int limit) {
+        return optimisticRead(() -> copies(delegate.getSubtasksPage(cursor, limit)));
+    }
+
+    @Override
+    public Page<Task> getPrioritizedTasksPage(String cursor, int limit) {
+        return read(() -> copies(delegate.getPrioritizedTasksPage(cursor, limit)));
+    }
+
+    @Override
+    public long getVersion() {
+        return delegate.getVersion();
+    }
+
+    @Override
+    public ChangeSet getChangesSince(long version) {
+        return read(() -> delegate.getChangesSince(version));
+    }
+
+    @Override
+    public BatchResult applyBatch(List<BatchOperation> operations) {
+        return write(() -> delegate.applyBatch(operations));
+    }
+
+    // Транзакция копит операции без блокировки; commit() идёт через applyBatch этого менеджера под записью
+    @Override
+    public Transaction beginTransaction() {
+        return new Transaction(this);
+    }
+
+    @Override
+    public void enableMetrics(MetricsRegistry registry) {
+        write(() -> {
+            delegate.enableMetrics(registry);
+            return null;
+        });
+    }
+
+    @Override
+    public ManagerStats getStats() {
+        return read(delegate::getStats);
+    }
+
+    @Override
+    public void clearHistory() {
+        write(delegate::clearHistory);
+    }
+
+    @Override
+    public void compact() {
+        write(delegate::compact);
+    }
+
+    @Override
+    public void addChangeListener(ChangeListener listener) {
+        delegate.addChangeListener(listener);
+    }
+
+    @Override
+    public void removeChangeListener(ChangeListener listener) {
+        delegate.removeChangeListener(listener);
+    }
+
+    @Override
+    public void validateNoTimeOverlap(Task task) {
+        read(() -> {
+            delegate.validateNoTimeOverlap(task);
+            return null;
+        });
+    }
+}
@@ -0,0 +1,11 @@
+package managers;
+
+public enum Durability {
+    // Запись выполняется и сбрасывается на диск в потоке вызывающего до возврата из метода
+    SYNC,
+    // Изменения копятся фоновым потоком и записываются пачкой с fsync, вызывающий ждёт записи своей пачки.
+    // Под ConcurrentTaskManager ожидание идёт после снятия блокировки, и записи потоков объединяются
+    GROUP,
+    // Как GROUP, но вызывающий не ждёт записи
+    ASYNC
+}
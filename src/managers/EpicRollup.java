@@ -0,0 +1,112 @@
+package managers;
+
+import model.Subtask;
+import model.TaskStatus;
+import util.IntObjectMap;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.TreeMap;
+
+// Агрегаты подзадач одного эпика, которые обновляются на разницу при каждом изменении подзадачи:
+// счётчики статусов, сумма продолжительностей и мультимножества начал и окончаний (O(log n) на изменение).
+// Учтённые значения хранятся по id подзадачи: объект подзадачи могли изменить до вызова update
+final class EpicRollup {
+
+    private static final class Contribution {
+        final TaskStatus status;
+        final LocalDateTime startTime;
+        final LocalDateTime endTime;
+        final Duration duration;
+
+        Contribution(Subtask subtask) {
+            this.status = subtask.getStatus();
+            this.startTime = subtask.getStartTime();
+            this.endTime = subtask.getEndTime();
+            this.duration = subtask.getDuration();
+        }
+    }
+
+    private final IntObjectMap<Contribution> contributions = new IntObjectMap<>();
+    private final TreeMap<LocalDateTime, Integer> startTimes = new TreeMap<>();
+    private final TreeMap<LocalDateTime, Integer> endTimes = new TreeMap<>();
+    private Duration totalDuration = Duration.ZERO;
+    private int newCount;
+    private int doneCount;
+
+    void put(Subtask subtask) {
+        Contribution contribution = new Contribution(subtask);
+        Contribution old = contributions.put(subtask.getId(), contribution);
+        if (old != null) {
+            apply(old, -1);
+        }
+        apply(contribution, 1);
+    }
+
+    void remove(int subtaskId) {
+        Contribution old = contributions.remove(subtaskId);
+        if (old != null) {
+            apply(old, -1);
+        }
+    }
+
+    void clear() {
+        contributions.clear();
+        startTimes.clear();
+        endTimes.clear();
+        totalDuration = Duration.ZERO;
+        newCount = 0;
+        doneCount = 0;
+    }
+
+    int size() {
+        return contributions.size();
+    }
+
+    TaskStatus getStatus() {
+        int size = contributions.size();
+        if (size == 0 || newCount == size) {
+            return TaskStatus.NEW;
+        }
+        if (doneCount == size) {
+            return TaskStatus.DONE;
+        }
+        return TaskStatus.IN_PROGRESS;
+    }
+
+    LocalDateTime getStartTime() {
+        return startTimes.isEmpty() ? null : startTimes.firstKey();
+    }
+
+    LocalDateTime getEndTime() {
+        return endTimes.isEmpty() ? null : endTimes.lastKey();
+    }
+
+    // Как и раньше: у эпика без подзадач продолжительность null, у эпика с подзадачами без времени - ноль
+    Duration getDuration() {
+        return contributions.isEmpty() ? null : totalDuration;
+    }
+
+    private void apply(Contribution contribution, int delta) {
+        if (contribution.status == TaskStatus.NEW) {
+            newCount += delta;
+        } else if (contribution.status == TaskStatus.DONE) {
+            doneCount += delta;
+        }
+        if (contribution.duration != null) {
+            totalDuration = delta > 0
+                    ? totalDuration.plus(contribution.duration)
+                    : totalDuration.minus(contribution.duration);
+        }
+        if (contribution.startTime != null) {
+            adjust(startTimes, contribution.startTime, delta);
+        }
+        if (contribution.endTime != null) {
+            adjust(endTimes, contribution.endTime, delta);
+        }
+    }
+
+    private static void adjust(TreeMap<LocalDateTime, Integer> multiset, LocalDateTime time, int delta) {
+        multiset.merge(time, delta, (count, change) -> count + change == 0 ? null : count + change);
+    }
+}
@@ -1,151 +1,631 @@
 package managers;
 
+import metrics.PersistEvent;
 import model.Epic;
 import model.Subtask;
 import model.Task;
 
-import java.io.BufferedWriter;
+import java.io.BufferedReader;
 import java.io.File;
-import java.io.FileWriter;
 import java.io.IOException;
+import java.io.StringWriter;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 
 public class FileBackedTaskManager extends InMemoryTaskManager {
+    public static final int DEFAULT_SNAPSHOT_INTERVAL = 1000;
+    public static final long DEFAULT_FLUSH_WINDOW_MILLIS = 5;
+    public static final int DEFAULT_MAX_BATCH_SIZE = 256;
+
+    private static final String PUT = "PUT";
+    private static final String DELETE = "DELETE";
+    private static final String CLEAR = "CLEAR";
+    private static final String LEASE = "LEASE";
+    private static final CompletableFuture<Void> NOTHING_WRITTEN = CompletableFuture.completedFuture(null);
+
     private final File file;
+    private final File journalFile;
+    private final PersistenceMode mode;
+    private final int snapshotInterval;
+    private final Durability durability;
+    private final GroupCommitFlusher flusher;
+    // Журнал в режиме SYNC: канал открыт между записями, каждая запись сбрасывается на диск
+    private FileChannel journal;
+    private int journalRecords;
+    private boolean restoring;
+    private int leasedUpTo;
+    // Записи применяемого пакета: сохраняются одной записью после применения всего пакета
+    private List<String> pendingRecords;
+    // Последняя синхронная запись; читаются мониторингом из другого потока
+    private volatile long lastSaveNanos;
+    private volatile long lastSaveBytes;
+    // В режиме GROUP под ConcurrentTaskManager запись ставится в очередь под блокировкой,
+    // а ждать её поток начинает уже без блокировки. Значение есть, пока поток внутри такой операции
+    private final ThreadLocal<CompletableFuture<Void>> deferredWrite = new ThreadLocal<>();
 
     public FileBackedTaskManager(File file) {
+        this(file, PersistenceMode.SNAPSHOT);
+    }
+
+    public FileBackedTaskManager(File file, PersistenceMode mode) {
+        this(file, mode, DEFAULT_SNAPSHOT_INTERVAL);
+    }
+
+    public FileBackedTaskManager(File file, PersistenceMode mode, int snapshotInterval) {
+        this(file, mode, snapshotInterval, Durability.SYNC, DEFAULT_FLUSH_WINDOW_MILLIS, DEFAULT_MAX_BATCH_SIZE);
+    }
+
+    public FileBackedTaskManager(File file, PersistenceMode mode, Durability durability) {
+        this(file, mode, DEFAULT_SNAPSHOT_INTERVAL, durability, DEFAULT_FLUSH_WINDOW_MILLIS, DEFAULT_MAX_BATCH_SIZE);
+    }
+
+    public FileBackedTaskManager(File file, PersistenceMode mode, int snapshotInterval,
+                                 Durability durability, long flushWindowMillis, int maxBatchSize) {
+        this(file, mode, snapshotInterval, durability, flushWindowMillis, maxBatchSize, new SequentialIdAllocator());
+    }
+
+    // Слушатель резервов регистрируется фабрикой уже после конструктора,
+    // чтобы распределитель не получил ссылку на недостроенный менеджер
+    public static FileBackedTaskManager create(File file, PersistenceMode mode, int snapshotInterval,
+                                               Durability durability, long flushWindowMillis, int maxBatchSize,
+                                               IdAllocator idAllocator) {
+        FileBackedTaskManager manager = new FileBackedTaskManager(file, mode, snapshotInterval,
+                durability, flushWindowMillis, maxBatchSize, idAllocator);
+        idAllocator.setLeaseListener(manager::saveLease);
+        return manager;
+    }
+
+    private FileBackedTaskManager(File file, PersistenceMode mode, int snapshotInterval,
+                                  Durability durability, long flushWindowMillis, int maxBatchSize,
+                                  IdAllocator idAllocator) {
+        super(idAllocator);
+        if (snapshotInterval <= 0) {
+            throw new IllegalArgumentException("Интервал снимков должен быть положительным");
+        }
         this.file = file;
+        this.journalFile = getJournalFile(file);
+        this.mode = mode;
+        this.snapshotInterval = snapshotInterval;
+        this.durability = durability;
+        this.flusher = durability == Durability.SYNC
+                ? null
+                : new GroupCommitFlusher(file, journalFile, flushWindowMillis, maxBatchSize);
+    }
+
+    public static File getJournalFile(File file) {
+        return new File(file.getPath() + ".journal");
     }
 
     protected void save() {
-        try (BufferedWriter writer = new BufferedWriter(new FileWriter(file))) {
-            writer.write(CsvFormat.getHeader() + "\n");
+        PersistEvent event = new PersistEvent();
+        event.begin();
+        long started = System.nanoTime();
+        int[] records = new int[1];
+        try {
+            lastSaveBytes = SnapshotFiles.replace(file, writer -> records[0] = writeSnapshot(writer));
+        } catch (IOException e) {
+            throw new ManagerSaveException("Ошибка сохранения", e);
+        }
+        lastSaveNanos = System.nanoTime() - started;
+        if (event.shouldCommit()) {
+            event.target = PersistEvent.SNAPSHOT;
+            event.records = records[0];
+            event.bytes = lastSaveBytes;
+            event.commit();
+        }
+    }
+
+    // Возвращает число записанных строк без заголовка
+    private int writeSnapshot(Writer writer) throws IOException {
+        writer.write(CsvFormat.getHeader() + "\n");
+        int records = 0;
+
+        // Сохраняем задачи всех типов
+        for (Task task : getAllTasks()) {
+            writer.write(CsvFormat.toString(task) + "\n");
+            records++;
+        }
+        for (Epic epic : getAllEpics()) {
+            writer.write(CsvFormat.toString(epic) + "\n");
+            records++;
+        }
+        for (Subtask subtask : getAllSubtasks()) {
+            writer.write(CsvFormat.toString(subtask) + "\n");
+            records++;
+        }
+        if (leasedUpTo > 0) {
+            writer.write(leaseRecord(leasedUpTo) + "\n");
+            records++;
+        }
+        return records;
+    }
+
+    // Граница зарезервированных id сохраняется до того, как из диапазона будет выдан первый id
+    private void saveLease(int highWaterMark) {
+        leasedUpTo = highWaterMark;
+        persist(leaseRecord(highWaterMark));
+    }
+
+    // Снимок строится в потоке вызывающего (состояние менеджера не потокобезопасно),
+    // фоновый поток только записывает готовый текст
+    private String renderSnapshot() {
+        StringWriter writer = new StringWriter();
+        try {
+            writeSnapshot(writer);
+        } catch (IOException e) {
+            throw new ManagerSaveException("Ошибка сохранения", e);
+        }
+        return writer.toString();
+    }
+
+    // Снимок текущего состояния; журнал после этого больше не нужен
+    @Override
+    public void compact() {
+        journalRecords = 0;
+        if (flusher != null) {
+            await(flusher.replace(renderSnapshot()));
+            return;
+        }
+        save();
+        closeJournal();
+        try {
+            Files.deleteIfExists(journalFile.toPath());
+        } catch (IOException e) {
+            throw new ManagerSaveException("Ошибка очистки журнала", e);
+        }
+    }
+
+    // Дождаться записи всех изменений, поставленных в очередь в режимах GROUP и ASYNC
+    public void flush() {
+        if (flusher != null) {
+            await(flusher.flush());
+        }
+    }
+
+    // Записать оставшиеся изменения, остановить фоновый поток и закрыть журнал
+    public void close() {
+        if (flusher != null) {
+            flusher.close();
+        }
+        closeJournal();
+    }
 
-            // Сохраняем задачи всех типов
-            for (Task task : getAllTasks()) {
-                writer.write(CsvFormat.toString(task) + "\n");
+    private void closeJournal() {
+        if (journal != null) {
+            try {
+                journal.close();
+            } catch (IOException ignored) {
+                // все записи уже сброшены на диск, ошибка закрытия не влияет на данные
             }
-            for (Epic epic : getAllEpics()) {
-                writer.write(CsvFormat.toString(epic) + "\n");
+            journal = null;
+        }
+    }
+
+    public Durability getDurability() {
+        return durability;
+    }
+
+    // Для SYNC метрики не ведутся: запись идёт в потоке вызывающего
+    public FlushStats getFlushStats() {
+        return flusher != null ? flusher.getStats() : new FlushStats();
+    }
+
+    // В режимах GROUP и ASYNC последняя запись - последняя пачка фонового потока.
+    // Записи журнала считаются с последнего снимка
+    @Override
+    public ManagerStats getStats() {
+        long saveNanos = flusher != null ? flusher.getStats().getLastFlushNanos() : lastSaveNanos;
+        long saveBytes = flusher != null ? flusher.getStats().getLastFlushBytes() : lastSaveBytes;
+        if (mode != PersistenceMode.JOURNAL) {
+            return super.getStats().withPersistence(saveNanos, saveBytes, -1, -1);
+        }
+        return super.getStats().withPersistence(saveNanos, saveBytes, journalRecords, journalFile.length());
+    }
+
+    private void persist(String record) {
+        if (restoring) {
+            return;
+        }
+        if (pendingRecords != null) {
+            pendingRecords.add(record);
+            return;
+        }
+        long started = startTiming();
+        persistNow(record);
+        record(metrics.save, started);
+    }
+
+    private void persistNow(String record) {
+        if (flusher != null) {
+            persistInBackground(record);
+            return;
+        }
+        if (mode == PersistenceMode.SNAPSHOT) {
+            save();
+            return;
+        }
+        PersistEvent event = new PersistEvent();
+        event.begin();
+        long started = System.nanoTime();
+        byte[] bytes = (record + "\n").getBytes(StandardCharsets.UTF_8);
+        try {
+            if (journal == null) {
+                journal = FileChannel.open(journalFile.toPath(), StandardOpenOption.CREATE,
+                        StandardOpenOption.WRITE, StandardOpenOption.APPEND);
             }
-            for (Subtask subtask : getAllSubtasks()) {
-                writer.write(CsvFormat.toString(subtask) + "\n");
+            ByteBuffer buffer = ByteBuffer.wrap(bytes);
+            while (buffer.hasRemaining()) {
+                journal.write(buffer);
             }
+            journal.force(false);
         } catch (IOException e) {
-            throw new ManagerSaveException("Ошибка сохранения", e);
+            throw new ManagerSaveException("Ошибка записи в журнал", e);
+        }
+        lastSaveNanos = System.nanoTime() - started;
+        lastSaveBytes = bytes.length;
+        if (event.shouldCommit()) {
+            event.target = PersistEvent.JOURNAL;
+            event.records = lineCount(record);
+            event.bytes = bytes.length;
+            event.commit();
+        }
+        if (++journalRecords >= snapshotInterval) {
+            compact();
         }
     }
 
-    public static FileBackedTaskManager loadFromFile(File file) {
-        FileBackedTaskManager manager = new FileBackedTaskManager(file);
+    private void persistInBackground(String record) {
+        CompletableFuture<Void> written;
+        if (mode == PersistenceMode.SNAPSHOT) {
+            written = flusher.replace(renderSnapshot());
+        } else if (++journalRecords >= snapshotInterval) {
+            journalRecords = 0;
+            written = flusher.replace(renderSnapshot());
+        } else {
+            written = flusher.append(record);
+        }
+        if (durability != Durability.GROUP) {
+            return;
+        }
+        if (deferredWrite.get() != null) {
+            // Пачки пишутся по порядку: достаточно дождаться последней записи потока
+            deferredWrite.set(written);
+        } else {
+            await(written);
+        }
+    }
+
+    // Начало операции, запись которой поток дождётся сам после снятия блокировки
+    void deferWrites() {
+        deferredWrite.set(NOTHING_WRITTEN);
+    }
+
+    // После снятия блокировки: дождаться записей операции; если операция завершилась
+    // исключением, его не подменяет ошибка записи - ожидание пропускается
+    void finishDeferredWrites(boolean await) {
+        CompletableFuture<Void> written = deferredWrite.get();
+        deferredWrite.remove();
+        if (await && written != null) {
+            await(written);
+        }
+    }
 
+    private static void await(CompletableFuture<Void> written) {
         try {
-            String content = Files.readString(file.toPath());
-            String[] lines = content.split("\n");
-
-            if (lines.length <= 1) return manager;
-
-            int maxId = 0;
-            for (int i = 1; i < lines.length; i++) {
-                if (lines[i].isBlank()) continue;
-                try {
-                    Task task = CsvFormat.fromString(lines[i]);
-                    if (task.getId() > maxId) {
-                        maxId = task.getId();
-                    }
-                    if (task instanceof Epic) {
-                        manager.createEpic((Epic) task);
-                    } else if (task instanceof Subtask) {
-                        manager.createSubtask((Subtask) task);
-                    } else {
-                        manager.createTask(task);
+            written.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof ManagerSaveException) {
+                throw (ManagerSaveException) e.getCause();
+            }
+            throw new ManagerSaveException("Ошибка сохранения", e.getCause());
+        }
+    }
+
+    // Пакет операций приходит одной строкой с записями через перевод строки
+    static int lineCount(String text) {
+        int lines = 1;
+        for (int i = text.indexOf('\n'); i >= 0; i = text.indexOf('\n', i + 1)) {
+            lines++;
+        }
+        return lines;
+    }
+
+    private static String putRecord(Task task) {
+        return PUT + "," + CsvFormat.toString(task);
+    }
+
+    private static String deleteRecord(TaskType type, int id) {
+        return DELETE + "," + type.name() + "," + id;
+    }
+
+    private static String clearRecord(TaskType type) {
+        return CLEAR + "," + type.name();
+    }
+
+    private static String leaseRecord(int highWaterMark) {
+        return LEASE + "," + highWaterMark;
+    }
+
+    private static boolean isLeaseRecord(String line) {
+        return line.startsWith(LEASE + ",");
+    }
+
+    private void restoreLease(String record) {
+        int highWaterMark = Integer.parseInt(record.substring(LEASE.length() + 1));
+        leasedUpTo = Math.max(leasedUpTo, highWaterMark);
+        idAllocator.reserve(highWaterMark);
+    }
+
+    public static FileBackedTaskManager loadFromFile(File file) {
+        return loadFromFile(file, PersistenceMode.SNAPSHOT);
+    }
+
+    // Загрузка идёт в обход createTask/createSubtask: файл не перезаписывается,
+    // а пересечения по времени проверяются один раз после чтения всех строк.
+    // Если рядом со снимком есть журнал, его записи применяются поверх снимка
+    public static FileBackedTaskManager loadFromFile(File file, PersistenceMode mode) {
+        return loadFromFile(file, mode, Durability.SYNC);
+    }
+
+    public static FileBackedTaskManager loadFromFile(File file, PersistenceMode mode, Durability durability) {
+        return loadFromFile(file, mode, durability, new SequentialIdAllocator());
+    }
+
+    public static FileBackedTaskManager loadFromFile(File file, PersistenceMode mode, Durability durability,
+                                                     IdAllocator idAllocator) {
+        FileBackedTaskManager manager = create(file, mode, DEFAULT_SNAPSHOT_INTERVAL,
+                durability, DEFAULT_FLUSH_WINDOW_MILLIS, DEFAULT_MAX_BATCH_SIZE, idAllocator);
+        int maxId = 0;
+
+        try (BufferedReader reader = Files.newBufferedReader(file.toPath())) {
+            if (reader.readLine() != null) {
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    if (line.isBlank()) continue;
+                    try {
+                        if (isLeaseRecord(line)) {
+                            manager.restoreLease(line);
+                            continue;
+                        }
+                        Task task = CsvFormat.fromString(line);
+                        maxId = Math.max(maxId, task.getId());
+                        manager.restore(task);
+                    } catch (Exception e) {
+                        throw new ManagerSaveException("Ошибка загрузки: повреждённая строка \"" + line + "\"", e);
                     }
-                } catch (Exception e) {
-                    throw new ManagerSaveException("Ошибка загрузки: повреждённая строка \"" + lines[i] + "\"", e);
                 }
             }
-            InMemoryTaskManager.nextId = maxId + 1;
-
-            // После загрузки всех задач обновляем статусы эпиков
-            manager.updateAllEpics();
         } catch (IOException e) {
             throw new ManagerSaveException("Ошибка чтения файла", e);
         }
+
+        if (manager.journalFile.exists()) {
+            maxId = Math.max(maxId, manager.replayJournal());
+        }
+        idAllocator.reserve(maxId);
+
+        try {
+            manager.finishRestore();
+        } catch (ManagerValidationException e) {
+            throw new ManagerSaveException("Ошибка загрузки: " + e.getMessage(), e);
+        }
+
+        // В режиме снимков журнал больше не дописывается, поэтому его содержимое сразу переносится в файл
+        if (mode == PersistenceMode.SNAPSHOT && manager.journalFile.exists()) {
+            manager.compact();
+        }
         return manager;
     }
 
+    // Записи журнала идемпотентны (PUT заменяет задачу целиком, DELETE и CLEAR удаляют),
+    // поэтому повторное применение уже вошедших в снимок записей не меняет результат.
+    // Запись считается целой, только если за ней есть перевод строки: оборванный хвост
+    // (сбой во время записи) может и разобраться - "DELETE,TASK,12" вместо "DELETE,TASK,123", -
+    // поэтому он отрезается до чтения, и новые записи пойдут с начала строки
+    private int replayJournal() {
+        int maxId = 0;
+        restoring = true;
+        try {
+            truncateTornTail(journalFile.toPath());
+            try (BufferedReader reader = Files.newBufferedReader(journalFile.toPath())) {
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    if (line.isBlank()) continue;
+                    try {
+                        maxId = Math.max(maxId, applyJournalRecord(line));
+                        journalRecords++;
+                    } catch (Exception e) {
+                        throw new ManagerSaveException("Ошибка загрузки: повреждённая запись журнала \"" + line + "\"", e);
+                    }
+                }
+            }
+        } catch (IOException e) {
+            throw new ManagerSaveException("Ошибка чтения журнала", e);
+        } finally {
+            restoring = false;
+        }
+        return maxId;
+    }
+
+    // Обрезает файл после последнего перевода строки
+    private static void truncateTornTail(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            ByteBuffer buffer = ByteBuffer.allocate(4096);
+            long end = channel.size();
+            while (end > 0) {
+                int length = (int) Math.min(buffer.capacity(), end);
+                buffer.clear().limit(length);
+                long start = end - length;
+                while (buffer.hasRemaining()) {
+                    if (channel.read(buffer, start + buffer.position()) < 0) {
+                        throw new IOException("Журнал укоротился во время чтения");
+                    }
+                }
+                for (int i = length - 1; i >= 0; i--) {
+                    if (buffer.get(i) == '\n') {
+                        truncate(channel, start + i + 1);
+                        return;
+                    }
+                }
+                end = start;
+            }
+            truncate(channel, 0);
+        }
+    }
+
+    private static void truncate(FileChannel channel, long size) throws IOException {
+        if (channel.size() > size) {
+            channel.truncate(size);
+            channel.force(false);
+        }
+    }
+
+    private int applyJournalRecord(String record) {
+        int separator = record.indexOf(',');
+        String operation = separator < 0 ? record : record.substring(0, separator);
+        String payload = record.substring(separator + 1);
+
+        switch (operation) {
+            case PUT:
+                Task task = CsvFormat.fromString(payload);
+                restore(task);
+                return task.getId();
+            case DELETE:
+                String[] fields = payload.split(",");
+                TaskType type = TaskType.valueOf(fields[0]);
+                int id = Integer.parseInt(fields[1]);
+                if (type == TaskType.EPIC) {
+                    deleteEpic(id);
+                } else if (type == TaskType.SUBTASK) {
+                    deleteSubtask(id);
+                } else {
+                    deleteTask(id);
+                }
+                return id;
+            case CLEAR:
+                TaskType clearedType = TaskType.valueOf(payload);
+                if (clearedType == TaskType.EPIC) {
+                    deleteAllEpics();
+                } else if (clearedType == TaskType.SUBTASK) {
+                    deleteAllSubtasks();
+                } else {
+                    deleteAllTasks();
+                }
+                return 0;
+            case LEASE:
+                restoreLease(record);
+                return 0;
+            default:
+                throw new IllegalArgumentException("Неизвестная операция журнала: " + operation);
+        }
+    }
+
+    @Override
+    public BatchResult applyBatch(List<BatchOperation> operations) {
+        pendingRecords = new ArrayList<>();
+        try {
+            return super.applyBatch(operations);
+        } finally {
+            List<String> records = pendingRecords;
+            pendingRecords = null;
+            if (!records.isEmpty()) {
+                // Снимок пишется один раз, в журнал - одним дописыванием
+                journalRecords += records.size() - 1;
+                persist(String.join("\n", records));
+            }
+        }
+    }
+
     @Override
     public Task createTask(Task task) {
         Task createdTask = super.createTask(task);
-        save();
+        persist(putRecord(createdTask));
         return createdTask;
     }
 
     @Override
     public Epic createEpic(Epic epic) {
         Epic createdEpic = super.createEpic(epic);
-        save();
+        persist(putRecord(createdEpic));
         return createdEpic;
     }
 
     @Override
     public Subtask createSubtask(Subtask subtask) {
         Subtask createdSubtask = super.createSubtask(subtask);
-        save();
+        if (createdSubtask != null) {
+            persist(putRecord(createdSubtask));
+        }
         return createdSubtask;
     }
 
     @Override
     public void updateTask(Task task) {
         super.updateTask(task);
-        save();
+        if (tasks.get(task.getId()) == task) {
+            persist(putRecord(task));
+        }
     }
 
     @Override
     public void updateEpic(Epic epic) {
         super.updateEpic(epic);
-        save();
+        Epic updatedEpic = epics.get(epic.getId());
+        if (updatedEpic != null) {
+            persist(putRecord(updatedEpic));
+        }
     }
 
     @Override
     public void updateSubtask(Subtask subtask) {
         super.updateSubtask(subtask);
-        save();
+        if (subtasks.get(subtask.getId()) == subtask) {
+            persist(putRecord(subtask));
+        }
     }
 
     @Override
     public void deleteTask(int id) {
         super.deleteTask(id);
-        save();
+        persist(deleteRecord(TaskType.TASK, id));
     }
 
     @Override
     public void deleteEpic(int id) {
         super.deleteEpic(id);
-        save();
+        persist(deleteRecord(TaskType.EPIC, id));
     }
 
     @Override
     public void deleteSubtask(int id) {
         super.deleteSubtask(id);
-        save();
+        persist(deleteRecord(TaskType.SUBTASK, id));
     }
 
     @Override
     public void deleteAllTasks() {
         super.deleteAllTasks();
-        save();
+        persist(clearRecord(TaskType.TASK));
     }
 
     @Override
     public void deleteAllEpics() {
         super.deleteAllEpics();
-        save();
+        persist(clearRecord(TaskType.EPIC));
     }
 
     @Override
     public void deleteAllSubtasks() {
         super.deleteAllSubtasks();
-        save();
+        persist(clearRecord(TaskType.SUBTASK));
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,86 @@
+package managers;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+// Метрики фоновой записи: сколько пачек записано, их размер и время записи
+public class FlushStats {
+    private final LongAdder flushCount = new LongAdder();
+    private final LongAdder recordCount = new LongAdder();
+    private final LongAdder totalFlushNanos = new LongAdder();
+    private final LongAdder failedFlushes = new LongAdder();
+    private final AtomicLong maxBatchSize = new AtomicLong();
+    private final AtomicLong maxFlushNanos = new AtomicLong();
+    private volatile long lastBatchSize;
+    private volatile long lastFlushNanos;
+    private volatile long lastFlushBytes;
+
+    void recordFlush(int batchSize, long nanos, long bytes) {
+        flushCount.increment();
+        recordCount.add(batchSize);
+        totalFlushNanos.add(nanos);
+        maxBatchSize.accumulateAndGet(batchSize, Math::max);
+        maxFlushNanos.accumulateAndGet(nanos, Math::max);
+        lastBatchSize = batchSize;
+        lastFlushNanos = nanos;
+        lastFlushBytes = bytes;
+    }
+
+    void recordFailure() {
+        failedFlushes.increment();
+    }
+
+    public long getFlushCount() {
+        return flushCount.sum();
+    }
+
+    public long getRecordCount() {
+        return recordCount.sum();
+    }
+
+    public long getFailedFlushes() {
+        return failedFlushes.sum();
+    }
+
+    public long getLastBatchSize() {
+        return lastBatchSize;
+    }
+
+    public long getMaxBatchSize() {
+        return maxBatchSize.get();
+    }
+
+    public double getAverageBatchSize() {
+        long flushes = flushCount.sum();
+        return flushes == 0 ? 0 : (double) recordCount.sum() / flushes;
+    }
+
+    public long getLastFlushNanos() {
+        return lastFlushNanos;
+    }
+
+    public long getLastFlushBytes() {
+        return lastFlushBytes;
+    }
+
+    public long getMaxFlushNanos() {
+        return maxFlushNanos.get();
+    }
+
+    public double getAverageFlushNanos() {
+        long flushes = flushCount.sum();
+        return flushes == 0 ? 0 : (double) totalFlushNanos.sum() / flushes;
+    }
+
+    @Override
+    public String toString() {
+        return "FlushStats{flushes=" + getFlushCount()
+                + ", records=" + getRecordCount()
+                + ", avgBatch=" + String.format("%.1f", getAverageBatchSize())
+                + ", maxBatch=" + getMaxBatchSize()
+                + ", avgFlushMicros=" + String.format("%.1f", getAverageFlushNanos() / 1000)
+                + ", maxFlushMicros=" + getMaxFlushNanos() / 1000
+                + ", failed=" + getFailedFlushes()
+                + '}';
+    }
+}
@@ -0,0 +1,229 @@
+package managers;
+
+import metrics.PersistEvent;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+// Фоновая запись для FileBackedTaskManager: всё, что успело накопиться в очереди, записывается
+// одним вызовом write и одним fsync. Пустую очередь поток не ждёт: одиночная запись уходит сразу,
+// а записи, пришедшие во время fsync, составляют следующую пачку. Окно ограничивает сбор пачки,
+// пока в очередь непрерывно поступают новые записи
+final class GroupCommitFlusher {
+
+    private static final class Entry {
+        final String record;
+        final String snapshot;
+        final boolean stop;
+        final CompletableFuture<Void> done = new CompletableFuture<>();
+
+        Entry(String record, String snapshot, boolean stop) {
+            this.record = record;
+            this.snapshot = snapshot;
+            this.stop = stop;
+        }
+
+        boolean hasData() {
+            return record != null || snapshot != null;
+        }
+    }
+
+    private final File file;
+    private final File journalFile;
+    private final long windowNanos;
+    private final int maxBatchSize;
+    private final BlockingQueue<Entry> queue = new LinkedBlockingQueue<>();
+    private final FlushStats stats = new FlushStats();
+    private final Thread thread;
+    private FileChannel journal;
+    private volatile boolean closed;
+
+    GroupCommitFlusher(File file, File journalFile, long windowMillis, int maxBatchSize) {
+        if (windowMillis < 0 || maxBatchSize <= 0) {
+            throw new IllegalArgumentException("Некорректные параметры пакетной записи");
+        }
+        this.file = file;
+        this.journalFile = journalFile;
+        this.windowNanos = TimeUnit.MILLISECONDS.toNanos(windowMillis);
+        this.maxBatchSize = maxBatchSize;
+        this.thread = new Thread(this::run, "task-manager-flusher");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    // Дописать запись в журнал
+    CompletableFuture<Void> append(String record) {
+        return submit(new Entry(record, null, false));
+    }
+
+    // Записать полный снимок и удалить журнал; более ранние записи пачки им перекрываются
+    CompletableFuture<Void> replace(String snapshot) {
+        return submit(new Entry(null, snapshot, false));
+    }
+
+    // Завершится, когда всё, что было поставлено в очередь раньше, записано
+    CompletableFuture<Void> flush() {
+        return submit(new Entry(null, null, false));
+    }
+
+    FlushStats getStats() {
+        return stats;
+    }
+
+    void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        Entry stop = new Entry(null, null, true);
+        queue.add(stop);
+        stop.done.join();
+    }
+
+    private CompletableFuture<Void> submit(Entry entry) {
+        if (closed) {
+            throw new IllegalStateException("Фоновая запись уже остановлена");
+        }
+        queue.add(entry);
+        return entry.done;
+    }
+
+    private void run() {
+        List<Entry> batch = new ArrayList<>();
+        boolean stopped = false;
+        while (!stopped) {
+            try {
+                batch.add(queue.take());
+                long deadline = System.nanoTime() + windowNanos;
+                while (batch.size() < maxBatchSize && !batch.get(batch.size() - 1).stop
+                        && System.nanoTime() - deadline < 0) {
+                    Entry next = queue.poll();
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                stopped = true;
+            }
+            write(batch);
+            stopped |= !batch.isEmpty() && batch.get(batch.size() - 1).stop;
+            batch.clear();
+        }
+        closeJournal();
+    }
+
+    private void write(List<Entry> batch) {
+        long started = System.nanoTime();
+        int lastSnapshot = -1;
+        int dataEntries = 0;
+        for (int i = 0; i < batch.size(); i++) {
+            Entry entry = batch.get(i);
+            if (entry.snapshot != null) {
+                lastSnapshot = i;
+            }
+            if (entry.hasData()) {
+                dataEntries++;
+            }
+        }
+
+        try {
+            long bytes = 0;
+            if (lastSnapshot >= 0) {
+                bytes += writeSnapshot(batch.get(lastSnapshot).snapshot);
+            }
+            StringBuilder records = new StringBuilder();
+            for (int i = lastSnapshot + 1; i < batch.size(); i++) {
+                String record = batch.get(i).record;
+                if (record != null) {
+                    records.append(record).append('\n');
+                }
+            }
+            if (records.length() > 0) {
+                bytes += appendToJournal(records.toString());
+            }
+            if (dataEntries > 0) {
+                stats.recordFlush(dataEntries, System.nanoTime() - started, bytes);
+            }
+            for (Entry entry : batch) {
+                entry.done.complete(null);
+            }
+        } catch (IOException e) {
+            stats.recordFailure();
+            ManagerSaveException failure = new ManagerSaveException("Ошибка фоновой записи", e);
+            for (Entry entry : batch) {
+                entry.done.completeExceptionally(failure);
+            }
+        }
+    }
+
+    private long writeSnapshot(String snapshot) throws IOException {
+        PersistEvent event = new PersistEvent();
+        event.begin();
+        closeJournal();
+        long bytes = SnapshotFiles.replace(file, writer -> writer.write(snapshot));
+        Files.deleteIfExists(journalFile.toPath());
+        // Снимок заканчивается переводом строки, первая строка - заголовок
+        if (event.shouldCommit()) {
+            commit(event, PersistEvent.SNAPSHOT, FileBackedTaskManager.lineCount(snapshot) - 2, bytes);
+        }
+        return bytes;
+    }
+
+    // records заканчивается переводом строки
+    private int appendToJournal(String records) throws IOException {
+        PersistEvent event = new PersistEvent();
+        event.begin();
+        if (journal == null) {
+            journal = FileChannel.open(journalFile.toPath(), StandardOpenOption.CREATE,
+                    StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+        }
+        int bytes = writeFully(journal, records);
+        journal.force(false);
+        if (event.shouldCommit()) {
+            commit(event, PersistEvent.JOURNAL, FileBackedTaskManager.lineCount(records) - 1, bytes);
+        }
+        return bytes;
+    }
+
+    // Вызывается только после shouldCommit(): строки считаются лишь при включённом событии
+    private static void commit(PersistEvent event, String target, int records, long bytes) {
+        event.target = target;
+        event.background = true;
+        event.records = records;
+        event.bytes = bytes;
+        event.commit();
+    }
+
+    private static int writeFully(FileChannel channel, String content) throws IOException {
+        ByteBuffer buffer = ByteBuffer.wrap(content.getBytes(StandardCharsets.UTF_8));
+        int bytes = buffer.remaining();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        return bytes;
+    }
+
+    private void closeJournal() {
+        if (journal != null) {
+            try {
+                journal.close();
+            } catch (IOException ignored) {
+                // канал больше не используется, ошибка закрытия не влияет на данные
+            }
+            journal = null;
+        }
+    }
+}
@@ -11,4 +11,8 @@ public interface HistoryManager {
     void remove(int id);
 
     List<Task> getHistory();
+
+    int size();
+
+    void clear();
 }
\ No newline at end of file
@@ -0,0 +1,17 @@
+package managers;
+
+import java.util.function.IntConsumer;
+
+// Источник идентификаторов задач. У каждого менеджера свой экземпляр
+public interface IdAllocator {
+
+    int nextId();
+
+    // Учесть уже занятый id (задача с заданным id или загруженная из файла):
+    // следующие выданные id будут больше него
+    void reserve(int id);
+
+    // Вызывается при резервировании нового диапазона id, чтобы менеджер мог его сохранить
+    default void setLeaseListener(IntConsumer listener) {
+    }
+}
@@ -2,11 +2,12 @@ package managers;
 
 import model.Task;
 
+import util.IntObjectMap;
+
 import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.List;
-import java.util.Map;
 
+// Методы синхронизированы: история меняется и при чтении задач, которое может идти параллельно
 public class InMemoryHistoryManager implements HistoryManager {
 
     private static class Node {
@@ -21,12 +22,12 @@ public class InMemoryHistoryManager implements HistoryManager {
         }
     }
 
-    private final Map<Integer, Node> historyMap = new HashMap<>();
+    private final IntObjectMap<Node> historyMap = new IntObjectMap<>();
     private Node head;
     private Node tail;
 
     @Override
-    public void add(Task task) {
+    public synchronized void add(Task task) {
         if (task == null) return;
         int id = task.getId();
         remove(id);
@@ -35,7 +36,7 @@ public class InMemoryHistoryManager implements HistoryManager {
     }
 
     @Override
-    public void remove(int id) {
+    public synchronized void remove(int id) {
         Node node = historyMap.get(id);
         if (node != null) {
             removeNode(node);
@@ -44,7 +45,7 @@ public class InMemoryHistoryManager implements HistoryManager {
     }
 
     @Override
-    public List<Task> getHistory() {
+    public synchronized List<Task> getHistory() {
         List<Task> history = new ArrayList<>();
         Node current = head;
         while (current != null) {
@@ -54,6 +55,18 @@ public class InMemoryHistoryManager implements HistoryManager {
         return history;
     }
 
+    @Override
+    public synchronized int size() {
+        return historyMap.size();
+    }
+
+    @Override
+    public synchronized void clear() {
+        historyMap.clear();
+        head = null;
+        tail = null;
+    }
+
     private void linkLast(Task task) {
         Node newNode = new Node(task, tail, null);
         if (tail == null) {
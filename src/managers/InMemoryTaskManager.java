@@ -1,22 +1,47 @@
 package managers;
 
+import metrics.EpicRollupEvent;
+import metrics.Histogram;
+import metrics.MetricsRegistry;
+import metrics.ValidationEvent;
 import model.Epic;
 import model.Subtask;
 import model.Task;
 import model.TaskStatus;
+import util.IntObjectMap;
+import util.IntSet;
 
-import java.time.Duration;
 import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
 import java.util.*;
-import java.util.stream.Collectors;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 public class InMemoryTaskManager implements TaskManager {
-    protected static int nextId = 1;
-    protected final Map<Integer, Task> tasks = new HashMap<>();
-    protected final Map<Integer, Epic> epics = new HashMap<>();
-    protected final Map<Integer, Subtask> subtasks = new HashMap<>();
+    protected final IdAllocator idAllocator;
+    protected final IntObjectMap<Task> tasks = new IntObjectMap<>();
+    protected final IntObjectMap<Epic> epics = new IntObjectMap<>();
+    protected final IntObjectMap<Subtask> subtasks = new IntObjectMap<>();
     protected final HistoryManager historyManager = Managers.getDefaultHistory();
-    private final Set<Task> prioritizedTasks = new TreeSet<>(Comparator.comparing(Task::getStartTime));
+    private final NavigableSet<Task> prioritizedTasks = new TreeSet<>(
+            Comparator.comparing(Task::getStartTime).thenComparingInt(Task::getId));
+    private final TimeIntervalIndex timeIndex = new TimeIntervalIndex();
+    private final IntObjectMap<EpicRollup> epicRollups = new IntObjectMap<>();
+    // Изменения выполняются в одном потоке (или под блокировкой записи), читать версию можно из любого
+    private volatile long version;
+    private final ChangeLog changeLog = new ChangeLog();
+    private final List<ChangeListener> changeListeners = new CopyOnWriteArrayList<>();
+    // Не null, пока применяется пакет: он уже проверен целиком, промежуточные состояния не проверяются,
+    // а эпики затронутых подзадач пересчитываются один раз в конце
+    private IntSet staleEpics;
+    ManagerMetrics metrics = ManagerMetrics.DISABLED;
+
+    public InMemoryTaskManager() {
+        this(new SequentialIdAllocator());
+    }
+
+    public InMemoryTaskManager(IdAllocator idAllocator) {
+        this.idAllocator = idAllocator;
+    }
 
    // Уважаемый ревьюер!
    // Большое спасибо за ваши ценные замечания! Я внимательно изучил все комментарии и внес соответствующие поправки.
@@ -24,12 +49,13 @@ public class InMemoryTaskManager implements TaskManager {
 
     @Override
     public Task createTask(Task task) {
+        long started = startTiming();
         validateNoTimeOverlap(task);
-        if (task.getId() == 0) {
-            task.setId(nextId++);
-        }
+        assignId(task);
         tasks.put(task.getId(), task);
         addToPrioritized(task);
+        changed(ChangeType.CREATED, TaskType.TASK, task.getId());
+        record(metrics.create, started);
         return task;
     }
 
@@ -40,20 +66,26 @@ public class InMemoryTaskManager implements TaskManager {
 
     @Override
     public void deleteTask(int id) {
+        long started = startTiming();
         Task task = tasks.remove(id);
         if (task != null) {
-            prioritizedTasks.remove(task);
+            removeFromPrioritized(task);
             historyManager.remove(id);
+            changed(ChangeType.DELETED, TaskType.TASK, id);
         }
+        record(metrics.delete, started);
     }
 
     @Override
     public void deleteAllTasks() {
+        long started = startTiming();
         for (Task task : tasks.values()) {
-            prioritizedTasks.remove(task);
+            removeFromPrioritized(task);
             historyManager.remove(task.getId());
         }
         tasks.clear();
+        changed(ChangeType.CLEARED, TaskType.TASK, 0);
+        record(metrics.delete, started);
     }
 
     @Override
@@ -68,22 +100,27 @@ public class InMemoryTaskManager implements TaskManager {
 
     @Override
     public void updateTask(Task updatedTask) {
+        long started = startTiming();
         validateNoTimeOverlap(updatedTask);
         if (tasks.containsKey(updatedTask.getId())) {
             Task oldTask = tasks.get(updatedTask.getId());
-            prioritizedTasks.remove(oldTask);
+            removeFromPrioritized(oldTask);
             tasks.put(updatedTask.getId(), updatedTask);
             addToPrioritized(updatedTask);
+            changed(ChangeType.UPDATED, TaskType.TASK, updatedTask.getId());
         }
+        record(metrics.update, started);
     }
 
     @Override
     public Epic createEpic(Epic epic) {
-        if (epic.getId() == 0) {
-            epic.setId(nextId++);
-        }
+        long started = startTiming();
+        assignId(epic);
         epics.put(epic.getId(), epic);
+        epicRollups.put(epic.getId(), new EpicRollup());
         updateEpicTime(epic);
+        changed(ChangeType.CREATED, TaskType.EPIC, epic.getId());
+        record(metrics.create, started);
         return epic;
     }
 
@@ -94,30 +131,40 @@ public class InMemoryTaskManager implements TaskManager {
 
     @Override
     public void deleteEpic(int id) {
+        long started = startTiming();
         Epic epic = epics.remove(id);
         if (epic != null) {
-            for (int subtaskId : epic.getSubtaskIds()) {
+            epicRollups.remove(id);
+            epic.getSubtaskIdSet().forEach(subtaskId -> {
                 Subtask subtask = subtasks.remove(subtaskId);
                 if (subtask != null) {
-                    prioritizedTasks.remove(subtask);
+                    removeFromPrioritized(subtask);
                 }
                 historyManager.remove(subtaskId);
-            }
+            });
             historyManager.remove(id);
+            changed(ChangeType.DELETED, TaskType.EPIC, id);
+            epic.getSubtaskIdSet().forEach(subtaskId -> alsoChanged(ChangeType.DELETED, TaskType.SUBTASK, subtaskId));
         }
+        record(metrics.delete, started);
     }
 
     @Override
     public void deleteAllEpics() {
+        long started = startTiming();
         for (Epic epic : epics.values()) {
             historyManager.remove(epic.getId());
         }
         for (Subtask subtask : subtasks.values()) {
-            prioritizedTasks.remove(subtask);
+            removeFromPrioritized(subtask);
             historyManager.remove(subtask.getId());
         }
         epics.clear();
+        epicRollups.clear();
         subtasks.clear();
+        changed(ChangeType.CLEARED, TaskType.EPIC, 0);
+        alsoChanged(ChangeType.CLEARED, TaskType.SUBTASK, 0);
+        record(metrics.delete, started);
     }
 
     @Override
@@ -132,73 +179,101 @@ public class InMemoryTaskManager implements TaskManager {
 
     @Override
     public void updateEpic(Epic updatedEpic) {
+        long started = startTiming();
         if (epics.containsKey(updatedEpic.getId())) {
             Epic epic = epics.get(updatedEpic.getId());
             epic.setTitle(updatedEpic.getTitle());
             epic.setDescription(updatedEpic.getDescription());
+            changed(ChangeType.UPDATED, TaskType.EPIC, epic.getId());
         }
+        record(metrics.update, started);
     }
 
     @Override
     public Subtask createSubtask(Subtask subtask) {
+        long started = startTiming();
         validateNoTimeOverlap(subtask);
         if (!epics.containsKey(subtask.getEpicId())) {
             return null;
         }
 
-        if (subtask.getId() == 0) {
-            subtask.setId(nextId++);
-        }
+        assignId(subtask);
         subtasks.put(subtask.getId(), subtask);
         Epic epic = epics.get(subtask.getEpicId());
         epic.addSubtaskId(subtask.getId());
-        updateEpicStatus(epic);
-        updateEpicTime(epic);
+        rollupOf(epic).put(subtask);
+        refreshEpic(epic);
         addToPrioritized(subtask);
+        changed(ChangeType.CREATED, TaskType.SUBTASK, subtask.getId());
+        epicChanged(epic);
+        record(metrics.create, started);
         return subtask;
     }
 
     @Override
     public void updateSubtask(Subtask updatedSubtask) {
+        long started = startTiming();
         validateNoTimeOverlap(updatedSubtask);
         if (subtasks.containsKey(updatedSubtask.getId())) {
             Subtask oldSubtask = subtasks.get(updatedSubtask.getId());
-            prioritizedTasks.remove(oldSubtask);
+            removeFromPrioritized(oldSubtask);
             subtasks.put(updatedSubtask.getId(), updatedSubtask);
             Epic epic = epics.get(updatedSubtask.getEpicId());
-            updateEpicStatus(epic);
-            updateEpicTime(epic);
+            if (epic != null) {
+                rollupOf(epic).put(updatedSubtask);
+                refreshEpic(epic);
+            }
             addToPrioritized(updatedSubtask);
+            changed(ChangeType.UPDATED, TaskType.SUBTASK, updatedSubtask.getId());
+            if (epic != null) {
+                epicChanged(epic);
+            }
         }
+        record(metrics.update, started);
     }
 
     @Override
     public void deleteSubtask(int id) {
+        long started = startTiming();
         Subtask subtask = subtasks.remove(id);
         if (subtask != null) {
-            prioritizedTasks.remove(subtask);
+            removeFromPrioritized(subtask);
             Epic epic = epics.get(subtask.getEpicId());
             if (epic != null) {
-                epic.getSubtaskIds().remove((Integer) id);
-                updateEpicStatus(epic);
-                updateEpicTime(epic);
+                epic.removeSubtaskId(id);
+                rollupOf(epic).remove(id);
+                refreshEpic(epic);
             }
             historyManager.remove(id);
+            changed(ChangeType.DELETED, TaskType.SUBTASK, id);
+            if (epic != null) {
+                epicChanged(epic);
+            }
         }
+        record(metrics.delete, started);
     }
 
     @Override
     public void deleteAllSubtasks() {
+        long started = startTiming();
         for (Subtask subtask : subtasks.values()) {
-            prioritizedTasks.remove(subtask);
+            removeFromPrioritized(subtask);
             historyManager.remove(subtask.getId());
         }
         subtasks.clear();
+        IntSet touchedEpics = new IntSet();
         for (Epic epic : epics.values()) {
+            if (!epic.getSubtaskIdSet().isEmpty()) {
+                touchedEpics.add(epic.getId());
+            }
             epic.clearSubtaskIds();
+            rollupOf(epic).clear();
             updateEpicStatus(epic);
             updateEpicTime(epic);
         }
+        changed(ChangeType.CLEARED, TaskType.SUBTASK, 0);
+        touchedEpics.forEach(epicId -> alsoChanged(ChangeType.UPDATED, TaskType.EPIC, epicId));
+        record(metrics.delete, started);
     }
 
     @Override
@@ -208,10 +283,14 @@ public class InMemoryTaskManager implements TaskManager {
             return new ArrayList<>();
         }
 
-        return epic.getSubtaskIds().stream()
-                .map(subtasks::get)
-                .filter(Objects::nonNull)
-                .collect(Collectors.toList());
+        List<Subtask> epicSubtasks = new ArrayList<>(epic.getSubtaskIdSet().size());
+        epic.getSubtaskIdSet().forEach(subtaskId -> {
+            Subtask subtask = subtasks.get(subtaskId);
+            if (subtask != null) {
+                epicSubtasks.add(subtask);
+            }
+        });
+        return epicSubtasks;
     }
 
     @Override
@@ -229,116 +308,386 @@ public class InMemoryTaskManager implements TaskManager {
         return null;
     }
 
-    private Collection<Task> getAllTasksWithTime() {
-        List<Task> tasksWithTime = new ArrayList<>();
-        tasksWithTime.addAll(tasks.values().stream()
-                .filter(t -> t.getStartTime() != null)
-                .toList());
-        tasksWithTime.addAll(subtasks.values().stream()
-                .filter(t -> t.getStartTime() != null)
-                .toList());
-        return tasksWithTime;
-    }
-
     @Override
     public List<Task> getHistory() {
         return historyManager.getHistory();
     }
 
+    @Override
+    public void clearHistory() {
+        historyManager.clear();
+    }
+
+    @Override
+    public ManagerStats getStats() {
+        return new ManagerStats(tasks.size(), epics.size(), subtasks.size(), prioritizedTasks.size(),
+                historyManager.size());
+    }
+
+    @Override
+    public void compact() {
+        // В памяти сохранять нечего
+    }
+
     @Override
     public List<Task> getPrioritizedTasks() {
         return new ArrayList<>(prioritizedTasks);
     }
 
     @Override
-    public void validateNoTimeOverlap(Task newTask) {
-        if (newTask.getStartTime() == null || newTask.getEndTime() == null) {
-            return;
+    public Page<Task> getTasksPage(String cursor, int limit) {
+        return pageById(tasks, cursor, limit);
+    }
+
+    @Override
+    public Page<Epic> getEpicsPage(String cursor, int limit) {
+        return pageById(epics, cursor, limit);
+    }
+
+    @Override
+    public Page<Subtask> getSubtasksPage(String cursor, int limit) {
+        return pageById(subtasks, cursor, limit);
+    }
+
+    // Курсор - время начала и id последней задачи страницы
+    @Override
+    public Page<Task> getPrioritizedTasksPage(String cursor, int limit) {
+        checkPageLimit(limit);
+        Iterator<Task> iterator;
+        if (cursor == null) {
+            iterator = prioritizedTasks.iterator();
+        } else {
+            int separator = cursor.lastIndexOf('_');
+            if (separator < 0) {
+                throw new IllegalArgumentException("Некорректный курсор: " + cursor);
+            }
+            Task last = new Task();
+            last.setStartTime(parseCursorTime(cursor.substring(0, separator)));
+            last.setId(parseCursorId(cursor.substring(separator + 1)));
+            iterator = prioritizedTasks.tailSet(last, false).iterator();
         }
 
-        boolean hasOverlap = getAllTasksWithTime().stream()
-                .filter(existingTask -> !existingTask.equals(newTask))
-                .anyMatch(existingTask -> isTimeOverlap(newTask, existingTask));
+        List<Task> items = new ArrayList<>(Math.min(limit, prioritizedTasks.size()));
+        while (iterator.hasNext() && items.size() < limit) {
+            items.add(iterator.next());
+        }
+        String nextCursor = null;
+        if (iterator.hasNext()) {
+            Task last = items.get(items.size() - 1);
+            nextCursor = last.getStartTime() + "_" + last.getId();
+        }
+        return new Page<>(items, nextCursor);
+    }
 
-        if (hasOverlap) {
-            throw new ManagerValidationException("Задача пересекается по времени с существующей задачей");
+    private static <T extends Task> Page<T> pageById(IntObjectMap<T> map, String cursor, int limit) {
+        checkPageLimit(limit);
+        int afterId = cursor == null ? 0 : parseCursorId(cursor);
+        List<T> items = map.valuesAfter(afterId, limit + 1);
+        String nextCursor = null;
+        if (items.size() > limit) {
+            items.remove(limit);
+            nextCursor = String.valueOf(items.get(limit - 1).getId());
+        }
+        return new Page<>(items, nextCursor);
+    }
+
+    private static void checkPageLimit(int limit) {
+        if (limit <= 0) {
+            throw new IllegalArgumentException("Размер страницы должен быть положительным");
+        }
+    }
+
+    private static int parseCursorId(String value) {
+        try {
+            return Integer.parseInt(value);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Некорректный курсор: " + value, e);
         }
     }
 
-    private boolean isTimeOverlap(Task task1, Task task2) {
-        if (task1.getId() == task2.getId()) {
-            return false;
+    private static LocalDateTime parseCursorTime(String value) {
+        try {
+            return LocalDateTime.parse(value);
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException("Некорректный курсор: " + value, e);
         }
+    }
 
-        LocalDateTime start1 = task1.getStartTime();
-        LocalDateTime end1 = task1.getEndTime();
-        LocalDateTime start2 = task2.getStartTime();
-        LocalDateTime end2 = task2.getEndTime();
+    @Override
+    public long getVersion() {
+        return version;
+    }
 
-        return !(end1.isBefore(start2) || end2.isBefore(start1));
+    @Override
+    public ChangeSet getChangesSince(long version) {
+        return changeLog.since(version, this.version);
     }
 
-    private void addToPrioritized(Task task) {
-        if (task.getStartTime() != null) {
-            prioritizedTasks.add(task);
+    @Override
+    public BatchResult applyBatch(List<BatchOperation> operations) {
+        long started = startTiming();
+        List<BatchResult.OperationResult> failures = new BatchPlan(this).validate(operations);
+        List<BatchResult.OperationResult> results = new ArrayList<>(operations.size());
+        if (!failures.isEmpty()) {
+            BatchResult.OperationResult[] byIndex = new BatchResult.OperationResult[operations.size()];
+            for (BatchResult.OperationResult failure : failures) {
+                byIndex[failure.getIndex()] = failure;
+            }
+            for (int i = 0; i < byIndex.length; i++) {
+                results.add(byIndex[i] != null ? byIndex[i]
+                        : new BatchResult.OperationResult(i, BatchResult.Status.NOT_APPLIED, 0, null, null));
+            }
+            return new BatchResult(false, results);
+        }
+
+        int[] createdIds = new int[operations.size()];
+        IntSet touchedEpics = new IntSet();
+        staleEpics = touchedEpics;
+        try {
+            for (int i = 0; i < operations.size(); i++) {
+                BatchOperation operation = operations.get(i);
+                int id = applyOperation(operation, createdIds);
+                createdIds[i] = id;
+                results.add(new BatchResult.OperationResult(i, BatchResult.Status.APPLIED, id, null, null));
+            }
+        } finally {
+            staleEpics = null;
+            touchedEpics.forEach(epicId -> {
+                Epic epic = epics.get(epicId);
+                if (epic != null) {
+                    refreshEpic(epic);
+                    epicChanged(epic);
+                }
+            });
         }
+        record(metrics.batch, started);
+        return new BatchResult(true, results);
     }
 
-    private void updateEpicStatus(Epic epic) {
-        List<Subtask> subs = getSubtasksByEpic(epic.getId());
+    private int applyOperation(BatchOperation operation, int[] createdIds) {
+        Task task = operation.getTask();
+        switch (operation.getAction()) {
+            case CREATE:
+                if (task instanceof Epic) {
+                    return createEpic((Epic) task).getId();
+                }
+                if (task instanceof Subtask) {
+                    Subtask subtask = (Subtask) task;
+                    if (operation.getEpicRef() != BatchOperation.NO_REF) {
+                        subtask.setEpicId(createdIds[operation.getEpicRef()]);
+                    }
+                    return createSubtask(subtask).getId();
+                }
+                return createTask(task).getId();
+            case UPDATE:
+                if (task instanceof Epic) {
+                    updateEpic((Epic) task);
+                } else if (task instanceof Subtask) {
+                    updateSubtask((Subtask) task);
+                } else {
+                    updateTask(task);
+                }
+                return task.getId();
+            default:
+                if (operation.getType() == TaskType.EPIC) {
+                    deleteEpic(operation.getId());
+                } else if (operation.getType() == TaskType.SUBTASK) {
+                    deleteSubtask(operation.getId());
+                } else {
+                    deleteTask(operation.getId());
+                }
+                return operation.getId();
+        }
+    }
+
+    boolean hasIndexedOverlap(LocalDateTime start, LocalDateTime end, IntSet excludedIds) {
+        return timeIndex.hasOverlap(start, end, excludedIds);
+    }
+
+    @Override
+    public Transaction beginTransaction() {
+        return new Transaction(this);
+    }
+
+    @Override
+    public void addChangeListener(ChangeListener listener) {
+        changeListeners.add(listener);
+    }
+
+    @Override
+    public void removeChangeListener(ChangeListener listener) {
+        changeListeners.remove(listener);
+    }
 
-        if (subs.isEmpty()) {
-            epic.updateStatus(TaskStatus.NEW);
+    @Override
+    public void validateNoTimeOverlap(Task newTask) {
+        if (staleEpics != null || newTask.getStartTime() == null || newTask.getEndTime() == null) {
             return;
         }
 
-        int newCount = 0;
-        int doneCount = 0;
+        long started = startTiming();
+        ValidationEvent event = new ValidationEvent();
+        event.begin();
+        boolean overlaps = timeIndex.hasOverlap(newTask.getStartTime(), newTask.getEndTime(), newTask.getId());
+        event.end();
+        record(metrics.validate, started);
+        if (event.shouldCommit()) {
+            event.taskType = newTask.getType().name();
+            event.taskId = newTask.getId();
+            event.indexedTasks = timeIndex.size();
+            event.overlap = overlaps;
+            event.commit();
+        }
+        if (overlaps) {
+            throw new ManagerValidationException("Задача пересекается по времени с существующей задачей");
+        }
+    }
+
+    @Override
+    public void enableMetrics(MetricsRegistry registry) {
+        metrics = new ManagerMetrics(registry);
+    }
 
-        for (Subtask sub : subs) {
-            if (sub.getStatus() == TaskStatus.NEW) newCount++;
-            if (sub.getStatus() == TaskStatus.DONE) doneCount++;
+    // 0 - метрики выключены, и время не замеряется вовсе
+    long startTiming() {
+        return metrics.enabled ? System.nanoTime() : 0;
+    }
+
+    void record(Histogram histogram, long started) {
+        if (started != 0) {
+            histogram.recordSince(started);
+        }
+    }
+
+    private void changed(ChangeType type, TaskType taskType, int id) {
+        version++;
+        alsoChanged(type, taskType, id);
+    }
+
+    // Сопутствующее изменение в рамках той же версии (например, пересчёт эпика после изменения подзадачи)
+    private void alsoChanged(ChangeType type, TaskType taskType, int id) {
+        changeLog.add(version, type, taskType, id);
+        if (!changeListeners.isEmpty()) {
+            Change change = new Change(version, type, taskType, id);
+            for (ChangeListener listener : changeListeners) {
+                listener.onChange(change);
+            }
         }
+    }
 
-        if (doneCount == subs.size()) {
-            epic.updateStatus(TaskStatus.DONE);
-        } else if (newCount == subs.size()) {
-            epic.updateStatus(TaskStatus.NEW);
+    private void assignId(Task task) {
+        if (task.getId() == 0) {
+            task.setId(idAllocator.nextId());
         } else {
-            epic.updateStatus(TaskStatus.IN_PROGRESS);
+            idAllocator.reserve(task.getId());
         }
     }
 
-    private void updateEpicTime(Epic epic) {
-        List<Subtask> epicSubtasks = getSubtasksByEpic(epic.getId());
+    private void addToPrioritized(Task task) {
+        if (task.getStartTime() != null) {
+            prioritizedTasks.add(task);
+            LocalDateTime endTime = task.getEndTime();
+            if (endTime != null) {
+                timeIndex.add(task.getId(), task.getStartTime(), endTime);
+            }
+        }
+    }
 
-        if (epicSubtasks.isEmpty()) {
-            epic.setStartTime(null);
-            epic.setDuration(null);
-            epic.setEndTime(null);
+    private void removeFromPrioritized(Task task) {
+        prioritizedTasks.remove(task);
+        timeIndex.remove(task.getId());
+    }
+
+    private EpicRollup rollupOf(Epic epic) {
+        EpicRollup rollup = epicRollups.get(epic.getId());
+        if (rollup == null) {
+            rollup = new EpicRollup();
+            epicRollups.put(epic.getId(), rollup);
+        }
+        return rollup;
+    }
+
+    private void refreshEpic(Epic epic) {
+        if (staleEpics != null) {
+            staleEpics.add(epic.getId());
             return;
         }
+        EpicRollupEvent event = new EpicRollupEvent();
+        event.begin();
+        updateEpicStatus(epic);
+        updateEpicTime(epic);
+        if (event.shouldCommit()) {
+            event.epicId = epic.getId();
+            event.subtaskCount = epic.getSubtaskIdSet().size();
+            event.status = String.valueOf(epic.getStatus());
+            event.commit();
+        }
+    }
 
-        LocalDateTime startTime = epicSubtasks.stream()
-                .map(Subtask::getStartTime)
-                .filter(Objects::nonNull)
-                .min(LocalDateTime::compareTo)
-                .orElse(null);
+    // Пересчёт эпика попадает в журнал в той же версии, что и изменение подзадачи;
+    // для пакета - один раз, в версии его последней операции
+    private void epicChanged(Epic epic) {
+        if (staleEpics == null) {
+            alsoChanged(ChangeType.UPDATED, TaskType.EPIC, epic.getId());
+        }
+    }
 
-        LocalDateTime endTime = epicSubtasks.stream()
-                .map(Subtask::getEndTime)
-                .filter(Objects::nonNull)
-                .max(LocalDateTime::compareTo)
-                .orElse(null);
+    private void updateEpicStatus(Epic epic) {
+        epic.updateStatus(rollupOf(epic).getStatus());
+    }
 
-        Duration duration = epicSubtasks.stream()
-                .map(Subtask::getDuration)
-                .filter(Objects::nonNull)
-                .reduce(Duration.ZERO, Duration::plus);
+    private void updateEpicTime(Epic epic) {
+        EpicRollup rollup = rollupOf(epic);
+        epic.setStartTime(rollup.getStartTime());
+        epic.setDuration(rollup.getDuration());
+        epic.setEndTime(rollup.getEndTime());
+    }
 
-        epic.setStartTime(startTime);
-        epic.setDuration(duration);
-        epic.setEndTime(endTime);
+    // Восстановление задачи при загрузке: без проверки пересечений и пересчёта эпиков,
+    // их выполняет finishRestore() один раз после загрузки всех задач
+    protected void restore(Task task) {
+        if (task instanceof Epic) {
+            Epic epic = (Epic) task;
+            Epic existingEpic = epics.get(epic.getId());
+            if (existingEpic != null) {
+                existingEpic.setTitle(epic.getTitle());
+                existingEpic.setDescription(epic.getDescription());
+            } else {
+                epics.put(epic.getId(), epic);
+                epicRollups.put(epic.getId(), new EpicRollup());
+            }
+        } else if (task instanceof Subtask) {
+            Subtask subtask = (Subtask) task;
+            Epic epic = epics.get(subtask.getEpicId());
+            if (epic == null) {
+                return;
+            }
+            Subtask oldSubtask = subtasks.put(subtask.getId(), subtask);
+            if (oldSubtask != null) {
+                removeFromPrioritized(oldSubtask);
+            } else {
+                epic.addSubtaskId(subtask.getId());
+            }
+            rollupOf(epic).put(subtask);
+            addToPrioritized(subtask);
+        } else {
+            Task oldTask = tasks.put(task.getId(), task);
+            if (oldTask != null) {
+                removeFromPrioritized(oldTask);
+            }
+            addToPrioritized(task);
+        }
+        version++;
+    }
+
+    // Загруженное состояние - новая точка отсчёта: изменения до неё журнал не хранит
+    protected void finishRestore() {
+        changeLog.reset(version);
+        updateAllEpics();
+        int overlappingId = timeIndex.findAnyOverlap();
+        if (overlappingId != 0) {
+            throw new ManagerValidationException("Задача " + overlappingId + " пересекается по времени с другой задачей");
+        }
     }
 
     protected void updateAllEpics() {
@@ -0,0 +1,37 @@
+package managers;
+
+import metrics.Histogram;
+import metrics.MetricsRegistry;
+
+// Длительности операций менеджера. create/update/delete - работа в памяти (вместе с проверкой
+// пересечений), validate - сама проверка, save - запись на диск у FileBackedTaskManager.
+// Учитываются завершившиеся операции; отклонённые проверкой попадают только в validate
+final class ManagerMetrics {
+    private static final String NAME = "taskmanager_operation_duration_seconds";
+    private static final String HELP = "Duration of task manager operations";
+
+    // Метрики не собираются: гистограммы есть, но никуда не выгружаются и не заполняются
+    static final ManagerMetrics DISABLED = new ManagerMetrics(new MetricsRegistry(), false);
+
+    final boolean enabled;
+    final Histogram create;
+    final Histogram update;
+    final Histogram delete;
+    final Histogram batch;
+    final Histogram validate;
+    final Histogram save;
+
+    ManagerMetrics(MetricsRegistry registry) {
+        this(registry, true);
+    }
+
+    private ManagerMetrics(MetricsRegistry registry, boolean enabled) {
+        this.enabled = enabled;
+        create = registry.histogram(NAME, HELP, "operation", "create");
+        update = registry.histogram(NAME, HELP, "operation", "update");
+        delete = registry.histogram(NAME, HELP, "operation", "delete");
+        batch = registry.histogram(NAME, HELP, "operation", "batch");
+        validate = registry.histogram(NAME, HELP, "operation", "validate");
+        save = registry.histogram(NAME, HELP, "operation", "save");
+    }
+}
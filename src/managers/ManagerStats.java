@@ -0,0 +1,88 @@
+package managers;
+
+// Снимок размеров менеджера и стоимости последней записи на диск для мониторинга.
+// Для менеджера без файла время и объём записи - 0, размеры журнала - -1
+public final class ManagerStats {
+    private final int taskCount;
+    private final int epicCount;
+    private final int subtaskCount;
+    private final int prioritizedCount;
+    private final int historySize;
+    private final long lastSaveNanos;
+    private final long lastSaveBytes;
+    private final long journalRecords;
+    private final long journalBytes;
+
+    ManagerStats(int taskCount, int epicCount, int subtaskCount, int prioritizedCount, int historySize) {
+        this(taskCount, epicCount, subtaskCount, prioritizedCount, historySize, 0, 0, -1, -1);
+    }
+
+    ManagerStats(int taskCount, int epicCount, int subtaskCount, int prioritizedCount, int historySize,
+                 long lastSaveNanos, long lastSaveBytes, long journalRecords, long journalBytes) {
+        this.taskCount = taskCount;
+        this.epicCount = epicCount;
+        this.subtaskCount = subtaskCount;
+        this.prioritizedCount = prioritizedCount;
+        this.historySize = historySize;
+        this.lastSaveNanos = lastSaveNanos;
+        this.lastSaveBytes = lastSaveBytes;
+        this.journalRecords = journalRecords;
+        this.journalBytes = journalBytes;
+    }
+
+    // Те же размеры с данными о записи на диск
+    ManagerStats withPersistence(long lastSaveNanos, long lastSaveBytes, long journalRecords, long journalBytes) {
+        return new ManagerStats(taskCount, epicCount, subtaskCount, prioritizedCount, historySize,
+                lastSaveNanos, lastSaveBytes, journalRecords, journalBytes);
+    }
+
+    public int getTaskCount() {
+        return taskCount;
+    }
+
+    public int getEpicCount() {
+        return epicCount;
+    }
+
+    public int getSubtaskCount() {
+        return subtaskCount;
+    }
+
+    public int getPrioritizedCount() {
+        return prioritizedCount;
+    }
+
+    public int getHistorySize() {
+        return historySize;
+    }
+
+    public long getLastSaveNanos() {
+        return lastSaveNanos;
+    }
+
+    public long getLastSaveBytes() {
+        return lastSaveBytes;
+    }
+
+    public long getJournalRecords() {
+        return journalRecords;
+    }
+
+    public long getJournalBytes() {
+        return journalBytes;
+    }
+
+    @Override
+    public String toString() {
+        return "ManagerStats{tasks=" + taskCount
+                + ", epics=" + epicCount
+                + ", subtasks=" + subtaskCount
+                + ", prioritized=" + prioritizedCount
+                + ", history=" + historySize
+                + ", lastSaveMicros=" + lastSaveNanos / 1000
+                + ", lastSaveBytes=" + lastSaveBytes
+                + ", journalRecords=" + journalRecords
+                + ", journalBytes=" + journalBytes
+                + '}';
+    }
+}
@@ -0,0 +1,8 @@
+package managers;
+
+public enum PersistenceMode {
+    // Каждое изменение полностью перезаписывает файл
+    SNAPSHOT,
+    // Каждое изменение дописывает одну запись в журнал, снимок пишется периодически
+    JOURNAL
+}
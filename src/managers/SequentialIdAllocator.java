@@ -0,0 +1,17 @@
+package managers;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class SequentialIdAllocator implements IdAllocator {
+    private final AtomicInteger lastId = new AtomicInteger();
+
+    @Override
+    public int nextId() {
+        return lastId.incrementAndGet();
+    }
+
+    @Override
+    public void reserve(int id) {
+        lastId.accumulateAndGet(id, Math::max);
+    }
+}
@@ -0,0 +1,71 @@
+package managers;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+
+// Замена файла снимка без окна, в котором на диске лежит недописанный снимок: новый снимок пишется
+// в соседний временный файл, сбрасывается на диск и переименовывается поверх старого.
+// После сбоя на диске остаётся либо старый снимок целиком, либо новый; журнал удаляется только потом
+final class SnapshotFiles {
+
+    @FunctionalInterface
+    interface Content {
+        void writeTo(Writer writer) throws IOException;
+    }
+
+    private SnapshotFiles() {
+    }
+
+    static File tempFile(File file) {
+        return new File(file.getPath() + ".tmp");
+    }
+
+    // Возвращает размер записанного снимка в байтах
+    static long replace(File file, Content content) throws IOException {
+        Path target = file.toPath();
+        Path temp = tempFile(file).toPath();
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            Writer writer = new BufferedWriter(new OutputStreamWriter(Channels.newOutputStream(channel),
+                    StandardCharsets.UTF_8));
+            content.writeTo(writer);
+            writer.flush();
+            channel.force(true);
+        } catch (IOException e) {
+            Files.deleteIfExists(temp);
+            throw e;
+        }
+        try {
+            Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+        syncDirectory(target);
+        return Files.size(target);
+    }
+
+    // Переименование становится надёжным только после сброса каталога; на системах,
+    // где каталог нельзя открыть как файл (Windows), шаг пропускается
+    private static void syncDirectory(Path target) {
+        Path directory = target.toAbsolutePath().getParent();
+        if (directory == null) {
+            return;
+        }
+        try (FileChannel channel = FileChannel.open(directory, StandardOpenOption.READ)) {
+            channel.force(true);
+        } catch (IOException e) {
+            // не поддерживается этой файловой системой
+        }
+    }
+}
@@ -1,5 +1,6 @@
 package managers;
 
+import metrics.MetricsRegistry;
 import model.Epic;
 import model.Subtask;
 import model.Task;
@@ -50,5 +51,43 @@ public interface TaskManager {
 
     List<Task> getPrioritizedTasks();
 
+    // Постраничное чтение: cursor - значение getNextCursor() предыдущей страницы или null для первой.
+    // Задачи, эпики и подзадачи упорядочены по id, приоритетный список - по времени начала
+    Page<Task> getTasksPage(String cursor, int limit);
+
+    Page<Epic> getEpicsPage(String cursor, int limit);
+
+    Page<Subtask> getSubtasksPage(String cursor, int limit);
+
+    Page<Task> getPrioritizedTasksPage(String cursor, int limit);
+
+    // Номер версии данных: увеличивается при каждом изменении задач, эпиков или подзадач
+    long getVersion();
+
+    // Изменения с версией больше указанной; ограниченный журнал хранит только последние из них
+    ChangeSet getChangesSince(long version);
+
+    // Применить операции по порядку как одно целое: сначала проверяется весь пакет, и при любой
+    // ошибке ничего не меняется
+    BatchResult applyBatch(List<BatchOperation> operations);
+
+    // Изменения копятся в транзакции и применяются при commit() одним пакетом
+    Transaction beginTransaction();
+
+    // Замерять длительности операций и выгружать их в registry
+    void enableMetrics(MetricsRegistry registry);
+
+    // Размеры и стоимость записи на диск для мониторинга (JMX)
+    ManagerStats getStats();
+
+    void clearHistory();
+
+    // Записать полный снимок и очистить журнал; у менеджера без файла ничего не делает
+    void compact();
+
+    void addChangeListener(ChangeListener listener);
+
+    void removeChangeListener(ChangeListener listener);
+
     void validateNoTimeOverlap(Task task); // Заменен boolean hasTimeOverlap(Task task)
 }
\ No newline at end of file
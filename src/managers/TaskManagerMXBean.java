@@ -0,0 +1,28 @@
+package managers;
+
+// Атрибуты и операции менеджера в JMX (jconsole, VisualVM, JMC)
+public interface TaskManagerMXBean {
+
+    int getTaskCount();
+
+    int getEpicCount();
+
+    int getSubtaskCount();
+
+    int getPrioritizedCount();
+
+    int getHistorySize();
+
+    long getLastSaveNanos();
+
+    long getLastSaveBytes();
+
+    // -1, если менеджер не ведёт журнал
+    long getJournalRecords();
+
+    long getJournalBytes();
+
+    void compact();
+
+    void clearHistory();
+}
@@ -0,0 +1,114 @@
+package managers;
+
+import metrics.MBeans;
+
+import javax.management.ObjectName;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.function.Supplier;
+
+// MBean менеджера: каждый атрибут читается из свежего getStats(), операции вызываются
+// через сам менеджер - для ConcurrentTaskManager под его блокировкой.
+// Менеджер без блокировки принадлежит одному потоку; тогда всё, что приходит из JMX,
+// выполняется в executor этого потока по очереди с его остальной работой
+public class TaskManagerMonitor implements TaskManagerMXBean {
+    public static final String TYPE = "TaskManager";
+
+    private final TaskManager manager;
+    private final Executor executor;
+
+    public TaskManagerMonitor(TaskManager manager) {
+        this(manager, Runnable::run);
+    }
+
+    public TaskManagerMonitor(TaskManager manager, Executor executor) {
+        this.manager = manager;
+        this.executor = executor;
+    }
+
+    // Регистрирует менеджер как kanban:type=TaskManager,name=<name>
+    public static ObjectName register(TaskManager manager, String name) {
+        return register(manager, name, Runnable::run);
+    }
+
+    public static ObjectName register(TaskManager manager, String name, Executor executor) {
+        return MBeans.register(new TaskManagerMonitor(manager, executor), TYPE, name);
+    }
+
+    @Override
+    public int getTaskCount() {
+        return stats().getTaskCount();
+    }
+
+    @Override
+    public int getEpicCount() {
+        return stats().getEpicCount();
+    }
+
+    @Override
+    public int getSubtaskCount() {
+        return stats().getSubtaskCount();
+    }
+
+    @Override
+    public int getPrioritizedCount() {
+        return stats().getPrioritizedCount();
+    }
+
+    @Override
+    public int getHistorySize() {
+        return stats().getHistorySize();
+    }
+
+    @Override
+    public long getLastSaveNanos() {
+        return stats().getLastSaveNanos();
+    }
+
+    @Override
+    public long getLastSaveBytes() {
+        return stats().getLastSaveBytes();
+    }
+
+    @Override
+    public long getJournalRecords() {
+        return stats().getJournalRecords();
+    }
+
+    @Override
+    public long getJournalBytes() {
+        return stats().getJournalBytes();
+    }
+
+    @Override
+    public void compact() {
+        call(() -> {
+            manager.compact();
+            return null;
+        });
+    }
+
+    @Override
+    public void clearHistory() {
+        call(() -> {
+            manager.clearHistory();
+            return null;
+        });
+    }
+
+    private ManagerStats stats() {
+        return call(manager::getStats);
+    }
+
+    private <T> T call(Supplier<T> action) {
+        try {
+            return CompletableFuture.supplyAsync(action, executor).join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw e;
+        }
+    }
+}
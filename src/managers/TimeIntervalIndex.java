@@ -0,0 +1,230 @@
+package managers;
+
+import util.IntObjectMap;
+import util.IntSet;
+
+import java.time.LocalDateTime;
+import java.util.ArrayDeque;
+import java.util.Deque;
+
+// Индекс интервалов времени задач и подзадач: AVL-дерево по (startTime, id),
+// каждый узел хранит максимальный конец интервала в своём поддереве.
+// Проверка пересечения - O(log n) без создания временных коллекций.
+final class TimeIntervalIndex {
+
+    private static final class Node {
+        final int id;
+        final LocalDateTime start;
+        final LocalDateTime end;
+        LocalDateTime maxEnd;
+        int height = 1;
+        Node left;
+        Node right;
+
+        Node(int id, LocalDateTime start, LocalDateTime end) {
+            this.id = id;
+            this.start = start;
+            this.end = end;
+            this.maxEnd = end;
+        }
+    }
+
+    private final IntObjectMap<Node> nodesById = new IntObjectMap<>();
+    private Node root;
+
+    void add(int id, LocalDateTime start, LocalDateTime end) {
+        remove(id);
+        Node node = new Node(id, start, end);
+        root = insert(root, node);
+        nodesById.put(id, node);
+    }
+
+    void remove(int id) {
+        Node node = nodesById.remove(id);
+        if (node != null) {
+            root = delete(root, node);
+        }
+    }
+
+    void clear() {
+        nodesById.clear();
+        root = null;
+    }
+
+    int size() {
+        return nodesById.size();
+    }
+
+    // Границы включаются: задачи, у которых конец одной совпадает с началом другой, пересекаются
+    boolean hasOverlap(LocalDateTime start, LocalDateTime end, int excludedId) {
+        return hasOverlap(root, start, end, excludedId);
+    }
+
+    // То же, но без учёта нескольких интервалов (задач, которые пакет изменений заменяет или удаляет)
+    boolean hasOverlap(LocalDateTime start, LocalDateTime end, IntSet excludedIds) {
+        return hasOverlap(root, start, end, excludedIds);
+    }
+
+    // Один проход по интервалам в порядке начала: возвращает id первого интервала,
+    // который начинается не позже конца одного из предыдущих, или 0, если пересечений нет
+    int findAnyOverlap() {
+        Deque<Node> stack = new ArrayDeque<>();
+        LocalDateTime maxEnd = null;
+        Node node = root;
+        while (node != null || !stack.isEmpty()) {
+            while (node != null) {
+                stack.push(node);
+                node = node.left;
+            }
+            node = stack.pop();
+            if (maxEnd != null && !node.start.isAfter(maxEnd)) {
+                return node.id;
+            }
+            if (maxEnd == null || node.end.isAfter(maxEnd)) {
+                maxEnd = node.end;
+            }
+            node = node.right;
+        }
+        return 0;
+    }
+
+    private static boolean hasOverlap(Node node, LocalDateTime start, LocalDateTime end, int excludedId) {
+        if (node == null || node.maxEnd.isBefore(start)) {
+            return false;
+        }
+        if (hasOverlap(node.left, start, end, excludedId)) {
+            return true;
+        }
+        if (node.start.isAfter(end)) {
+            return false;
+        }
+        if (node.id != excludedId && !node.end.isBefore(start)) {
+            return true;
+        }
+        return hasOverlap(node.right, start, end, excludedId);
+    }
+
+    private static boolean hasOverlap(Node node, LocalDateTime start, LocalDateTime end, IntSet excludedIds) {
+        if (node == null || node.maxEnd.isBefore(start)) {
+            return false;
+        }
+        if (hasOverlap(node.left, start, end, excludedIds)) {
+            return true;
+        }
+        if (node.start.isAfter(end)) {
+            return false;
+        }
+        if (!excludedIds.contains(node.id) && !node.end.isBefore(start)) {
+            return true;
+        }
+        return hasOverlap(node.right, start, end, excludedIds);
+    }
+
+    private static int compare(Node a, Node b) {
+        int result = a.start.compareTo(b.start);
+        return result != 0 ? result : Integer.compare(a.id, b.id);
+    }
+
+    private static Node insert(Node node, Node newNode) {
+        if (node == null) {
+            return newNode;
+        }
+        if (compare(newNode, node) < 0) {
+            node.left = insert(node.left, newNode);
+        } else {
+            node.right = insert(node.right, newNode);
+        }
+        return rebalance(node);
+    }
+
+    private static Node delete(Node node, Node target) {
+        if (node == null) {
+            return null;
+        }
+        if (node == target) {
+            if (node.left == null) {
+                return node.right;
+            }
+            if (node.right == null) {
+                return node.left;
+            }
+            Node successor = min(node.right);
+            successor.right = deleteMin(node.right);
+            successor.left = node.left;
+            return rebalance(successor);
+        }
+        if (compare(target, node) < 0) {
+            node.left = delete(node.left, target);
+        } else {
+            node.right = delete(node.right, target);
+        }
+        return rebalance(node);
+    }
+
+    private static Node min(Node node) {
+        while (node.left != null) {
+            node = node.left;
+        }
+        return node;
+    }
+
+    private static Node deleteMin(Node node) {
+        if (node.left == null) {
+            return node.right;
+        }
+        node.left = deleteMin(node.left);
+        return rebalance(node);
+    }
+
+    private static int height(Node node) {
+        return node == null ? 0 : node.height;
+    }
+
+    private static void update(Node node) {
+        node.height = Math.max(height(node.left), height(node.right)) + 1;
+        LocalDateTime maxEnd = node.end;
+        if (node.left != null && node.left.maxEnd.isAfter(maxEnd)) {
+            maxEnd = node.left.maxEnd;
+        }
+        if (node.right != null && node.right.maxEnd.isAfter(maxEnd)) {
+            maxEnd = node.right.maxEnd;
+        }
+        node.maxEnd = maxEnd;
+    }
+
+    private static Node rebalance(Node node) {
+        update(node);
+        int balance = height(node.left) - height(node.right);
+        if (balance > 1) {
+            if (height(node.left.left) < height(node.left.right)) {
+                node.left = rotateLeft(node.left);
+            }
+            return rotateRight(node);
+        }
+        if (balance < -1) {
+            if (height(node.right.right) < height(node.right.left)) {
+                node.right = rotateRight(node.right);
+            }
+            return rotateLeft(node);
+        }
+        return node;
+    }
+
+    private static Node rotateRight(Node node) {
+        Node left = node.left;
+        node.left = left.right;
+        left.right = node;
+        update(node);
+        update(left);
+        return left;
+    }
+
+    private static Node rotateLeft(Node node) {
+        Node right = node.right;
+        node.right = right.left;
+        right.left = node;
+        update(node);
+        update(right);
+        return right;
+    }
+}
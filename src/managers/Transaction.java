@@ -0,0 +1,92 @@
+package managers;
+
+import model.Epic;
+import model.Subtask;
+import model.Task;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// Единица работы: изменения только запоминаются, а commit() применяет их одним пакетом -
+// пересечения проверяются один раз, каждый затронутый эпик пересчитывается один раз,
+// файл сохраняется один раз. Если пакет не прошёл проверку, менеджер не меняется вовсе.
+// Транзакция не потокобезопасна и используется одним потоком
+public class Transaction {
+    private final TaskManager manager;
+    private final List<BatchOperation> operations = new ArrayList<>();
+    private boolean finished;
+
+    Transaction(TaskManager manager) {
+        this.manager = manager;
+    }
+
+    public void createTask(Task task) {
+        add(BatchOperation.create(task));
+    }
+
+    // Возвращает ссылку на эпик для подзадач этой же транзакции: id эпика до commit() неизвестен
+    public int createEpic(Epic epic) {
+        return add(BatchOperation.create(epic));
+    }
+
+    public void createSubtask(Subtask subtask) {
+        add(BatchOperation.create(subtask));
+    }
+
+    public void createSubtask(Subtask subtask, int epicRef) {
+        add(BatchOperation.createSubtask(subtask, epicRef));
+    }
+
+    public void updateTask(Task task) {
+        add(BatchOperation.update(task));
+    }
+
+    public void updateEpic(Epic epic) {
+        add(BatchOperation.update(epic));
+    }
+
+    public void updateSubtask(Subtask subtask) {
+        add(BatchOperation.update(subtask));
+    }
+
+    public void deleteTask(int id) {
+        add(BatchOperation.delete(TaskType.TASK, id));
+    }
+
+    public void deleteEpic(int id) {
+        add(BatchOperation.delete(TaskType.EPIC, id));
+    }
+
+    public void deleteSubtask(int id) {
+        add(BatchOperation.delete(TaskType.SUBTASK, id));
+    }
+
+    public int size() {
+        return operations.size();
+    }
+
+    public BatchResult commit() {
+        ensureActive();
+        finished = true;
+        return manager.applyBatch(operations);
+    }
+
+    // Отменить транзакцию: накопленные изменения ещё не применялись, поэтому просто отбрасываются
+    public void rollback() {
+        ensureActive();
+        finished = true;
+        operations.clear();
+    }
+
+    private int add(BatchOperation operation) {
+        ensureActive();
+        operations.add(operation);
+        return operations.size() - 1;
+    }
+
+    private void ensureActive() {
+        if (finished) {
+            throw new IllegalStateException("Транзакция уже завершена");
+        }
+    }
+}
@@ -0,0 +1,25 @@
+package metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+@Name("kanban.EpicRollup")
+@Label("Epic Rollup")
+@Category({"Kanban", "Task Manager"})
+@Description("Recalculation of an epic's status and time from its subtasks")
+@Enabled(false)
+@StackTrace(false)
+public final class EpicRollupEvent extends jdk.jfr.Event {
+    @Label("Epic Id")
+    public int epicId;
+
+    @Label("Subtasks")
+    public int subtaskCount;
+
+    @Label("Status")
+    public String status;
+}
@@ -0,0 +1,79 @@
+package metrics;
+
+import java.util.concurrent.atomic.LongAdder;
+
+// Гистограмма длительностей с фиксированными границами корзин. Запись - поиск корзины по
+// небольшому массиву и два LongAdder.increment/add, без блокировок и выделения памяти.
+// Корзины хранятся без накопления, накопленные значения для Prometheus считаются при выгрузке
+public final class Histogram {
+    // От 50 мкс до 10 с - от чтения из памяти до медленной записи на диск
+    public static final double[] DEFAULT_BUCKETS_SECONDS = {
+            0.00005, 0.0001, 0.00025, 0.0005, 0.001, 0.0025, 0.005, 0.01, 0.025, 0.05, 0.1, 0.25, 0.5, 1, 2.5, 5, 10
+    };
+
+    private final double[] boundsSeconds;
+    private final long[] boundsNanos;
+    // Последняя корзина - +Inf
+    private final LongAdder[] buckets;
+    private final LongAdder sumNanos = new LongAdder();
+
+    public Histogram() {
+        this(DEFAULT_BUCKETS_SECONDS);
+    }
+
+    public Histogram(double[] boundsSeconds) {
+        this.boundsSeconds = boundsSeconds.clone();
+        this.boundsNanos = new long[boundsSeconds.length];
+        for (int i = 0; i < boundsSeconds.length; i++) {
+            if (i > 0 && boundsSeconds[i] <= boundsSeconds[i - 1]) {
+                throw new IllegalArgumentException("Границы корзин должны возрастать");
+            }
+            boundsNanos[i] = Math.round(boundsSeconds[i] * 1_000_000_000L);
+        }
+        this.buckets = new LongAdder[boundsSeconds.length + 1];
+        for (int i = 0; i < buckets.length; i++) {
+            buckets[i] = new LongAdder();
+        }
+    }
+
+    public void recordNanos(long nanos) {
+        int bucket = 0;
+        while (bucket < boundsNanos.length && nanos > boundsNanos[bucket]) {
+            bucket++;
+        }
+        buckets[bucket].increment();
+        sumNanos.add(nanos);
+    }
+
+    // Длительность от момента System.nanoTime(), полученного до операции
+    public void recordSince(long startedNanos) {
+        recordNanos(System.nanoTime() - startedNanos);
+    }
+
+    public long getCount() {
+        long count = 0;
+        for (LongAdder bucket : buckets) {
+            count += bucket.sum();
+        }
+        return count;
+    }
+
+    public double getSumSeconds() {
+        return sumNanos.sum() / 1e9;
+    }
+
+    double[] getBoundsSeconds() {
+        return boundsSeconds;
+    }
+
+    // Накопленные количества по границам, последним - общее (+Inf)
+    long[] cumulativeCounts() {
+        long[] result = new long[buckets.length];
+        long total = 0;
+        for (int i = 0; i < buckets.length; i++) {
+            total += buckets[i].sum();
+            result[i] = total;
+        }
+        return result;
+    }
+}
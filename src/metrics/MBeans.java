@@ -0,0 +1,56 @@
+package metrics;
+
+import javax.management.InstanceNotFoundException;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.Hashtable;
+
+// Регистрация в платформенном MBeanServer - том, что видят jconsole, VisualVM и JMC.
+// Объект с тем же именем заменяется: после перезапуска сервера на том же порту
+// в JMX должен остаться только новый экземпляр
+public final class MBeans {
+    public static final String DOMAIN = "kanban";
+
+    private MBeans() {
+    }
+
+    // type и name становятся ключами имени: kanban:type=TaskManager,name=main
+    public static ObjectName register(Object mbean, String type, String name) {
+        Hashtable<String, String> keys = new Hashtable<>();
+        keys.put("type", type);
+        keys.put("name", isPlain(name) ? name : ObjectName.quote(name));
+        try {
+            ObjectName objectName = new ObjectName(DOMAIN, keys);
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            if (server.isRegistered(objectName)) {
+                unregister(objectName);
+            }
+            server.registerMBean(mbean, objectName);
+            return objectName;
+        } catch (JMException e) {
+            throw new IllegalStateException("Не удалось зарегистрировать MBean " + type + " " + name, e);
+        }
+    }
+
+    public static void unregister(ObjectName objectName) {
+        try {
+            ManagementFactory.getPlatformMBeanServer().unregisterMBean(objectName);
+        } catch (InstanceNotFoundException e) {
+            // уже снят
+        } catch (JMException e) {
+            throw new IllegalStateException("Не удалось снять MBean " + objectName, e);
+        }
+    }
+
+    private static boolean isPlain(String value) {
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == ',' || c == '=' || c == ':' || c == '"' || c == '*' || c == '?' || c == '\n') {
+                return false;
+            }
+        }
+        return !value.isEmpty();
+    }
+}
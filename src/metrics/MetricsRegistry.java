@@ -0,0 +1,97 @@
+package metrics;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+
+// Реестр метрик. Метрики регистрируются заранее (при запуске или построении маршрутов),
+// и код на горячем пути держит ссылку на Counter/Histogram, не обращаясь к реестру.
+// Повторная регистрация той же метрики с теми же метками возвращает существующую
+public class MetricsRegistry {
+
+    private static final class Family {
+        final String name;
+        final String help;
+        final String type;
+        final Map<String, Object> series = new LinkedHashMap<>();
+
+        Family(String name, String help, String type) {
+            this.name = name;
+            this.help = help;
+            this.type = type;
+        }
+    }
+
+    private final Map<String, Family> families = new LinkedHashMap<>();
+
+    // labels - пары имя, значение: counter("http_requests_total", "...", "method", "GET")
+    public synchronized Counter counter(String name, String help, String... labels) {
+        return (Counter) register(name, help, "counter", labels, Counter::new);
+    }
+
+    public synchronized Histogram histogram(String name, String help, String... labels) {
+        return (Histogram) register(name, help, "histogram", labels, Histogram::new);
+    }
+
+    private Object register(String name, String help, String type, String[] labels,
+                            Supplier<Object> factory) {
+        if (labels.length % 2 != 0) {
+            throw new IllegalArgumentException("Метки задаются парами имя, значение");
+        }
+        Family family = families.computeIfAbsent(name, key -> new Family(name, help, type));
+        if (!family.type.equals(type)) {
+            throw new IllegalArgumentException("Метрика " + name + " уже зарегистрирована как " + family.type);
+        }
+        return family.series.computeIfAbsent(formatLabels(labels), key -> factory.get());
+    }
+
+    // Текстовый формат Prometheus 0.0.4
+    public synchronized String toPrometheusText() {
+        StringBuilder out = new StringBuilder();
+        for (Family family : families.values()) {
+            out.append("# HELP ").append(family.name).append(' ').append(family.help).append('\n');
+            out.append("# TYPE ").append(family.name).append(' ').append(family.type).append('\n');
+            for (Map.Entry<String, Object> series : family.series.entrySet()) {
+                if (series.getValue() instanceof Counter) {
+                    out.append(family.name).append(braces(series.getKey())).append(' ')
+                            .append(((Counter) series.getValue()).get()).append('\n');
+                } else {
+                    appendHistogram(out, family.name, series.getKey(), (Histogram) series.getValue());
+                }
+            }
+        }
+        return out.toString();
+    }
+
+    private static void appendHistogram(StringBuilder out, String name, String labels, Histogram histogram) {
+        double[] bounds = histogram.getBoundsSeconds();
+        long[] cumulative = histogram.cumulativeCounts();
+        String prefix = labels.isEmpty() ? "" : labels + ",";
+        for (int i = 0; i < bounds.length; i++) {
+            out.append(name).append("_bucket{").append(prefix).append("le=\"").append(bounds[i]).append("\"} ")
+                    .append(cumulative[i]).append('\n');
+        }
+        long count = cumulative[cumulative.length - 1];
+        out.append(name).append("_bucket{").append(prefix).append("le=\"+Inf\"} ").append(count).append('\n');
+        out.append(name).append("_sum").append(braces(labels)).append(' ').append(histogram.getSumSeconds()).append('\n');
+        out.append(name).append("_count").append(braces(labels)).append(' ').append(count).append('\n');
+    }
+
+    private static String braces(String labels) {
+        return labels.isEmpty() ? "" : "{" + labels + "}";
+    }
+
+    private static String formatLabels(String[] labels) {
+        List<String> pairs = new ArrayList<>(labels.length / 2);
+        for (int i = 0; i < labels.length; i += 2) {
+            pairs.add(labels[i] + "=\"" + escape(labels[i + 1]) + "\"");
+        }
+        return String.join(",", pairs);
+    }
+
+    private static String escape(String value) {
+        return value.replace("\\", "\\\\").replace("\"", "\\\"").replace("\n", "\\n");
+    }
+}
@@ -0,0 +1,34 @@
+package metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+// target - "snapshot" (файл целиком) или "journal" (дозапись); background - запись фоновым потоком
+@Name("kanban.Persist")
+@Label("Persist")
+@Category({"Kanban", "Persistence"})
+@Description("Write of a snapshot or journal records to disk")
+@Enabled(false)
+@StackTrace(false)
+public final class PersistEvent extends jdk.jfr.Event {
+    public static final String SNAPSHOT = "snapshot";
+    public static final String JOURNAL = "journal";
+
+    @Label("Target")
+    public String target;
+
+    @Label("Background")
+    public boolean background;
+
+    @Label("Records")
+    public int records;
+
+    @Label("Bytes Written")
+    @DataAmount
+    public long bytes;
+}
@@ -0,0 +1,28 @@
+package metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+// Для потоковых списков bytes - размер JSON до сжатия gzip
+@Name("kanban.JsonSerialization")
+@Label("JSON Serialization")
+@Category({"Kanban", "HTTP"})
+@Description("Serialization of a response body to JSON")
+@Enabled(false)
+@StackTrace(false)
+public final class SerializationEvent extends jdk.jfr.Event {
+    @Label("Path")
+    public String path;
+
+    @Label("Items")
+    public int items;
+
+    @Label("Bytes")
+    @DataAmount
+    public long bytes;
+}
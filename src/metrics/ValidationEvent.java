@@ -0,0 +1,32 @@
+package metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+// События JFR по умолчанию выключены: пока запись не включит их явно, begin/commit ничего не делают,
+// а поля заполняются только после shouldCommit(). Включение - в настройках записи JDK Mission Control
+// или в файле .jfc: <event name="kanban.OverlapValidation"><setting name="enabled">true</setting></event>
+@Name("kanban.OverlapValidation")
+@Label("Overlap Validation")
+@Category({"Kanban", "Task Manager"})
+@Description("Check of a task's time interval against the prioritized tasks")
+@Enabled(false)
+@StackTrace(false)
+public final class ValidationEvent extends jdk.jfr.Event {
+    @Label("Task Type")
+    public String taskType;
+
+    @Label("Task Id")
+    public int taskId;
+
+    @Label("Indexed Tasks")
+    @Description("Tasks with a time interval at the moment of the check")
+    public int indexedTasks;
+
+    @Label("Overlap")
+    public boolean overlap;
+}
@@ -1,13 +1,14 @@
 package model;
 
 import managers.TaskType;
+import util.IntSet;
+
 import java.time.Duration;
 import java.time.LocalDateTime;
-import java.util.ArrayList;
 import java.util.List;
 
 public class Epic extends Task {
-    private List<Integer> subtaskIds = new ArrayList<>();
+    private IntSet subtaskIds = new IntSet();
     private LocalDateTime endTime;
 
     // Конструктор по умолчанию для Gson
@@ -26,7 +27,7 @@ public class Epic extends Task {
 
     public Epic(Epic other) {
         super(other);
-        this.subtaskIds = new ArrayList<>(other.subtaskIds);
+        this.subtaskIds = new IntSet(other.subtaskIds);
         this.endTime = other.endTime;
     }
 
@@ -35,18 +36,30 @@ public class Epic extends Task {
         return TaskType.EPIC;
     }
 
+    // Копия в виде списка; для обхода без упаковки - getSubtaskIdSet()
     public List<Integer> getSubtaskIds() {
+        return subtaskIds.toList();
+    }
+
+    public IntSet getSubtaskIdSet() {
         return subtaskIds;
     }
 
     public void setSubtaskIds(List<Integer> subtaskIds) {
-        this.subtaskIds = subtaskIds;
+        this.subtaskIds = new IntSet(subtaskIds.size());
+        for (int id : subtaskIds) {
+            this.subtaskIds.add(id);
+        }
     }
 
     public void addSubtaskId(int id) {
         subtaskIds.add(id);
     }
 
+    public void removeSubtaskId(int id) {
+        subtaskIds.remove(id);
+    }
+
     public void clearSubtaskIds() {
         subtaskIds.clear();
     }
@@ -0,0 +1,312 @@
+package util;
+
+import java.util.AbstractCollection;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.PriorityQueue;
+import java.util.function.IntConsumer;
+
+// Отображение int -> объект без упаковки ключей и без узла на каждую запись.
+// Записи лежат в плотных массивах в порядке добавления, поиск идёт через таблицу
+// с открытой адресацией, в которой хранятся позиции записей. Удалённая запись
+// оставляет "дыру"; когда дыр становится больше половины, записи сдвигаются вплотную
+// (при удалении или при расширении массивов), а сильно опустевшие массивы уменьшаются.
+// Поэтому обход стоит O(size), а память - O(size) и после массовых удалений.
+public class IntObjectMap<V> {
+    private static final int EMPTY = -1;
+    private static final int DEFAULT_CAPACITY = 8;
+
+    private int[] keys;
+    private Object[] values;
+    private int[] table;
+    private int mask;
+    private int end;
+    private int size;
+    // Ключи в плотном массиве (вместе с дырами) идут по возрастанию - так бывает,
+    // когда id выдаются последовательно, и тогда выборка по ключу делается двоичным поиском
+    private boolean keysAscending = true;
+
+    public IntObjectMap() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    public IntObjectMap(int expectedSize) {
+        int capacity = Math.max(DEFAULT_CAPACITY, expectedSize);
+        keys = new int[capacity];
+        values = new Object[capacity];
+        rebuildTable();
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public boolean containsKey(int key) {
+        return table[findSlot(key)] != EMPTY;
+    }
+
+    @SuppressWarnings("unchecked")
+    public V get(int key) {
+        int position = table[findSlot(key)];
+        return position == EMPTY ? null : (V) values[position];
+    }
+
+    @SuppressWarnings("unchecked")
+    public V put(int key, V value) {
+        Objects.requireNonNull(value, "Значение не может быть null");
+        int slot = findSlot(key);
+        int position = table[slot];
+        if (position != EMPTY) {
+            V old = (V) values[position];
+            values[position] = value;
+            return old;
+        }
+        if (end == keys.length) {
+            ensureCapacity();
+            slot = findSlot(key);
+        }
+        if (end > 0 && key < keys[end - 1]) {
+            keysAscending = false;
+        }
+        keys[end] = key;
+        values[end] = value;
+        table[slot] = end;
+        end++;
+        size++;
+        return null;
+    }
+
+    @SuppressWarnings("unchecked")
+    public V remove(int key) {
+        int slot = findSlot(key);
+        int position = table[slot];
+        if (position == EMPTY) {
+            return null;
+        }
+        V old = (V) values[position];
+        values[position] = null;
+        size--;
+        deleteSlot(slot);
+        while (end > 0 && values[end - 1] == null) {
+            end--;
+        }
+        if (end - size > end / 2) {
+            compact();
+            shrinkIfSparse();
+            rebuildTable();
+        }
+        return old;
+    }
+
+    public void clear() {
+        Arrays.fill(values, 0, end, null);
+        Arrays.fill(table, EMPTY);
+        end = 0;
+        size = 0;
+        keysAscending = true;
+    }
+
+    public void forEachKey(IntConsumer action) {
+        for (int position = nextPosition(0); position < end; position = nextPosition(position + 1)) {
+            action.accept(keys[position]);
+        }
+    }
+
+    // Представление значений в порядке добавления; изменения отображения во время обхода не допускаются
+    public Collection<V> values() {
+        return new AbstractCollection<>() {
+            @Override
+            public Iterator<V> iterator() {
+                return new ValueIterator();
+            }
+
+            @Override
+            public int size() {
+                return size;
+            }
+        };
+    }
+
+    // Не более limit значений с ключами больше after в порядке возрастания ключей.
+    // При возрастающих ключах - O(log n + limit), иначе - полный проход с кучей размера limit
+    @SuppressWarnings("unchecked")
+    public List<V> valuesAfter(int after, int limit) {
+        if (limit <= 0) {
+            return new ArrayList<>();
+        }
+        if (keysAscending) {
+            List<V> result = new ArrayList<>(Math.min(limit, size));
+            for (int position = nextPosition(firstPositionAfter(after)); position < end && result.size() < limit;
+                 position = nextPosition(position + 1)) {
+                result.add((V) values[position]);
+            }
+            return result;
+        }
+
+        PriorityQueue<Integer> largest = new PriorityQueue<>(Math.min(limit, size) + 1, (a, b) -> Integer.compare(keys[b], keys[a]));
+        for (int position = nextPosition(0); position < end; position = nextPosition(position + 1)) {
+            if (keys[position] > after) {
+                largest.add(position);
+                if (largest.size() > limit) {
+                    largest.poll();
+                }
+            }
+        }
+        Object[] result = new Object[largest.size()];
+        for (int i = result.length - 1; i >= 0; i--) {
+            result[i] = values[largest.poll()];
+        }
+        return new ArrayList<>(Arrays.asList((V[]) result));
+    }
+
+    private int firstPositionAfter(int key) {
+        int low = 0;
+        int high = end;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (keys[middle] <= key) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    private final class ValueIterator implements Iterator<V> {
+        private int position = nextPosition(0);
+
+        @Override
+        public boolean hasNext() {
+            return position < end;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public V next() {
+            if (position >= end) {
+                throw new NoSuchElementException();
+            }
+            V value = (V) values[position];
+            position = nextPosition(position + 1);
+            return value;
+        }
+    }
+
+    private int nextPosition(int position) {
+        while (position < end && values[position] == null) {
+            position++;
+        }
+        return position;
+    }
+
+    private static int hash(int key) {
+        int h = key * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+
+    // Число проб ограничено размером таблицы: при чтении без блокировки (ConcurrentTaskManager)
+    // таблица может оказаться в промежуточном состоянии, и цикл не должен стать бесконечным
+    private int findSlot(int key) {
+        int[] table = this.table;
+        int mask = table.length - 1;
+        int slot = hash(key) & mask;
+        for (int probes = 0; probes <= mask; probes++) {
+            if (table[slot] == EMPTY || keys[table[slot]] == key) {
+                return slot;
+            }
+            slot = (slot + 1) & mask;
+        }
+        throw new IllegalStateException("В таблице нет свободных ячеек");
+    }
+
+    // Удаление из таблицы с линейным пробированием без "надгробий": следующие записи цепочки сдвигаются назад
+    private void deleteSlot(int slot) {
+        table[slot] = EMPTY;
+        int hole = slot;
+        int next = slot;
+        while (true) {
+            next = (next + 1) & mask;
+            if (table[next] == EMPTY) {
+                return;
+            }
+            int ideal = hash(keys[table[next]]) & mask;
+            boolean reachable = hole <= next
+                    ? hole < ideal && ideal <= next
+                    : hole < ideal || ideal <= next;
+            if (!reachable) {
+                table[hole] = table[next];
+                table[next] = EMPTY;
+                hole = next;
+            }
+        }
+    }
+
+    // Если дыр не меньше половины - сжимаем на месте, иначе удваиваем массивы
+    private void ensureCapacity() {
+        if (end - size < end / 2) {
+            keys = Arrays.copyOf(keys, keys.length * 2);
+            values = Arrays.copyOf(values, values.length * 2);
+        }
+        compact();
+        rebuildTable();
+    }
+
+    private void compact() {
+        int target = 0;
+        for (int position = 0; position < end; position++) {
+            if (values[position] != null) {
+                keys[target] = keys[position];
+                values[target] = values[position];
+                target++;
+            }
+        }
+        Arrays.fill(values, target, end, null);
+        end = target;
+        keysAscending = true;
+        for (int position = 1; position < end && keysAscending; position++) {
+            keysAscending = keys[position - 1] < keys[position];
+        }
+    }
+
+    // Массивы уменьшаются вдвое больше size, когда заняты не больше чем на четверть; запас
+    // в два раза не даёт чередованию вставок и удалений каждый раз перестраивать массивы
+    private void shrinkIfSparse() {
+        if (keys.length > DEFAULT_CAPACITY && size * 4 <= keys.length) {
+            int capacity = Math.max(DEFAULT_CAPACITY, size * 2);
+            keys = Arrays.copyOf(keys, capacity);
+            values = Arrays.copyOf(values, capacity);
+        }
+    }
+
+    // Для проверок: длина плотных массивов вместе с дырами
+    int capacity() {
+        return keys.length;
+    }
+
+    private void rebuildTable() {
+        int tableSize = Integer.highestOneBit(keys.length * 2 - 1) << 1;
+        // Новая таблица заполняется до публикации в поле
+        int[] rebuilt = table != null && table.length == tableSize ? table : new int[tableSize];
+        int rebuiltMask = tableSize - 1;
+        Arrays.fill(rebuilt, EMPTY);
+        for (int position = 0; position < end; position++) {
+            int slot = hash(keys[position]) & rebuiltMask;
+            while (rebuilt[slot] != EMPTY) {
+                slot = (slot + 1) & rebuiltMask;
+            }
+            rebuilt[slot] = position;
+        }
+        table = rebuilt;
+        mask = rebuiltMask;
+    }
+}
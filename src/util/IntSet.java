@@ -0,0 +1,219 @@
+package util;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.IntConsumer;
+
+// Множество int без упаковки: добавление, удаление и проверка за O(1),
+// обход в порядке добавления. Устроено так же, как IntObjectMap: плотный массив
+// элементов и таблица с открытой адресацией, хранящая их позиции. Дыры от удалений
+// сжимаются по тем же правилам, поэтому обход и память - O(size) и после массовых удалений.
+public class IntSet {
+    private static final int EMPTY = -1;
+    private static final int DEFAULT_CAPACITY = 4;
+
+    private int[] elements;
+    private boolean[] removed;
+    private int[] table;
+    private int mask;
+    private int end;
+    private int size;
+
+    public IntSet() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    public IntSet(int expectedSize) {
+        int capacity = Math.max(DEFAULT_CAPACITY, expectedSize);
+        elements = new int[capacity];
+        removed = new boolean[capacity];
+        rebuildTable();
+    }
+
+    // Копия массивов как есть, вместе с дырами: порядок обхода тот же, а конструктор
+    // не вызывает переопределяемых методов
+    public IntSet(IntSet other) {
+        elements = other.elements.clone();
+        removed = other.removed.clone();
+        table = other.table.clone();
+        mask = other.mask;
+        end = other.end;
+        size = other.size;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public boolean contains(int value) {
+        return table[findSlot(value)] != EMPTY;
+    }
+
+    public boolean add(int value) {
+        int slot = findSlot(value);
+        if (table[slot] != EMPTY) {
+            return false;
+        }
+        if (end == elements.length) {
+            ensureCapacity();
+            slot = findSlot(value);
+        }
+        elements[end] = value;
+        removed[end] = false;
+        table[slot] = end;
+        end++;
+        size++;
+        return true;
+    }
+
+    public boolean remove(int value) {
+        int slot = findSlot(value);
+        int position = table[slot];
+        if (position == EMPTY) {
+            return false;
+        }
+        removed[position] = true;
+        size--;
+        deleteSlot(slot);
+        while (end > 0 && removed[end - 1]) {
+            end--;
+        }
+        if (end - size > end / 2) {
+            compact();
+            shrinkIfSparse();
+            rebuildTable();
+        }
+        return true;
+    }
+
+    public void clear() {
+        Arrays.fill(table, EMPTY);
+        end = 0;
+        size = 0;
+    }
+
+    public void forEach(IntConsumer action) {
+        for (int position = 0; position < end; position++) {
+            if (!removed[position]) {
+                action.accept(elements[position]);
+            }
+        }
+    }
+
+    public int[] toArray() {
+        int[] result = new int[size];
+        int index = 0;
+        for (int position = 0; position < end; position++) {
+            if (!removed[position]) {
+                result[index++] = elements[position];
+            }
+        }
+        return result;
+    }
+
+    public List<Integer> toList() {
+        List<Integer> result = new ArrayList<>(size);
+        forEach(result::add);
+        return result;
+    }
+
+    @Override
+    public String toString() {
+        return toList().toString();
+    }
+
+    private static int hash(int value) {
+        int h = value * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+
+    // Пробы ограничены размером таблицы, как в IntObjectMap
+    private int findSlot(int value) {
+        int[] table = this.table;
+        int mask = table.length - 1;
+        int slot = hash(value) & mask;
+        for (int probes = 0; probes <= mask; probes++) {
+            if (table[slot] == EMPTY || elements[table[slot]] == value) {
+                return slot;
+            }
+            slot = (slot + 1) & mask;
+        }
+        throw new IllegalStateException("В таблице нет свободных ячеек");
+    }
+
+    private void deleteSlot(int slot) {
+        table[slot] = EMPTY;
+        int hole = slot;
+        int next = slot;
+        while (true) {
+            next = (next + 1) & mask;
+            if (table[next] == EMPTY) {
+                return;
+            }
+            int ideal = hash(elements[table[next]]) & mask;
+            boolean reachable = hole <= next
+                    ? hole < ideal && ideal <= next
+                    : hole < ideal || ideal <= next;
+            if (!reachable) {
+                table[hole] = table[next];
+                table[next] = EMPTY;
+                hole = next;
+            }
+        }
+    }
+
+    private void ensureCapacity() {
+        if (end - size < end / 2) {
+            elements = Arrays.copyOf(elements, elements.length * 2);
+            removed = Arrays.copyOf(removed, removed.length * 2);
+        }
+        compact();
+        rebuildTable();
+    }
+
+    private void compact() {
+        int target = 0;
+        for (int position = 0; position < end; position++) {
+            if (!removed[position]) {
+                elements[target] = elements[position];
+                removed[target] = false;
+                target++;
+            }
+        }
+        end = target;
+    }
+
+    private void shrinkIfSparse() {
+        if (elements.length > DEFAULT_CAPACITY && size * 4 <= elements.length) {
+            int capacity = Math.max(DEFAULT_CAPACITY, size * 2);
+            elements = Arrays.copyOf(elements, capacity);
+            removed = Arrays.copyOf(removed, capacity);
+        }
+    }
+
+    // Для проверок: длина плотного массива вместе с дырами
+    int capacity() {
+        return elements.length;
+    }
+
+    private void rebuildTable() {
+        int tableSize = Integer.highestOneBit(elements.length * 2 - 1) << 1;
+        int[] rebuilt = table != null && table.length == tableSize ? table : new int[tableSize];
+        int rebuiltMask = tableSize - 1;
+        Arrays.fill(rebuilt, EMPTY);
+        for (int position = 0; position < end; position++) {
+            int slot = hash(elements[position]) & rebuiltMask;
+            while (rebuilt[slot] != EMPTY) {
+                slot = (slot + 1) & rebuiltMask;
+            }
+            rebuilt[slot] = position;
+        }
+        table = rebuilt;
+        mask = rebuiltMask;
+    }
+}
@@ -0,0 +1,79 @@
+package http.handlers;
+
+import com.google.gson.Gson;
+import http.http.server.HttpTaskServer;
+import managers.ChangeSet;
+import managers.ChangeType;
+import managers.Managers;
+import managers.TaskManager;
+import model.Task;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ChangesHandlerTest {
+    private TaskManager manager;
+    private HttpTaskServer taskServer;
+    private Gson gson;
+    private HttpClient client;
+    private final int PORT = 8080;
+    private final String BASE_URL = "http://localhost:" + PORT;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        manager = Managers.getDefault();
+        taskServer = new HttpTaskServer(manager);
+        gson = HttpTaskServer.getGson();
+        taskServer.start();
+        client = HttpClient.newHttpClient();
+    }
+
+    @AfterEach
+    void tearDown() {
+        taskServer.stop();
+    }
+
+    @Test
+    void shouldReturnOnlyChangesAfterClientVersion() throws IOException, InterruptedException {
+        manager.createTask(new Task("First", "Description"));
+        long clientVersion = manager.getVersion();
+        Task second = manager.createTask(new Task("Second", "Description"));
+
+        HttpResponse<String> response = get("/changes?since=" + clientVersion);
+        assertEquals(200, response.statusCode(), "Неверный статус код при получении изменений");
+        ChangeSet changes = gson.fromJson(response.body(), ChangeSet.class);
+        assertEquals(manager.getVersion(), changes.getVersion());
+        assertEquals(1, changes.getChanges().size(), "Должно вернуться только одно изменение");
+        assertEquals(ChangeType.CREATED, changes.getChanges().get(0).getType());
+        assertEquals(second.getId(), changes.getChanges().get(0).getId());
+
+        HttpResponse<String> sameEpoch = get("/changes?since=" + changes.getVersion() + "&epoch=" + changes.getEpoch());
+        assertEquals(200, sameEpoch.statusCode());
+        assertTrue(gson.fromJson(sameEpoch.body(), ChangeSet.class).getChanges().isEmpty());
+    }
+
+    @Test
+    void shouldRequireResyncForUnknownEpochOrVersion() throws IOException, InterruptedException {
+        manager.createTask(new Task("Task", "Description"));
+
+        HttpResponse<String> otherEpoch = get("/changes?since=0&epoch=restarted");
+        assertEquals(410, otherEpoch.statusCode(), "Версия другого экземпляра менеджера недействительна");
+        assertTrue(gson.fromJson(otherEpoch.body(), ChangeSet.class).isResyncRequired());
+
+        assertEquals(410, get("/changes?since=100").statusCode(), "Версия из будущего недействительна");
+        assertEquals(400, get("/changes").statusCode(), "Без параметра since запрос некорректен");
+    }
+
+    private HttpResponse<String> get(String path) throws IOException, InterruptedException {
+        HttpRequest request = HttpRequest.newBuilder().uri(URI.create(BASE_URL + path)).GET().build();
+        return client.send(request, HttpResponse.BodyHandlers.ofString());
+    }
+}
@@ -258,4 +258,17 @@ class EpicsHandlerTest {
         assertNotNull(epics, "Список эпиков не должен быть null");
         assertEquals(2, epics.size(), "Неверное количество эпиков");
     }
-}
\ No newline at end of file
+
+    @Test
+    void subtaskIdsShouldBeSerializedAsJsonArray() {
+        Epic epic = new Epic("Epic", "Description");
+        epic.addSubtaskId(7);
+        epic.addSubtaskId(3);
+
+        String json = gson.toJson(epic);
+        assertTrue(json.contains("\"subtaskIds\":[7,3]"), json);
+
+        Epic restored = gson.fromJson(json, Epic.class);
+        assertEquals(List.of(7, 3), restored.getSubtaskIds());
+    }
+}
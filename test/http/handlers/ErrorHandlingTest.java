@@ -14,6 +14,7 @@ import java.net.http.HttpRequest;
 import java.net.http.HttpResponse;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 class ErrorHandlingTest {
     private TaskManager manager;
@@ -75,4 +76,27 @@ class ErrorHandlingTest {
         HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
         assertEquals(400, response.statusCode()); // Bad Request
     }
-}
\ No newline at end of file
+
+    @Test
+    void testRoutingErrors() throws IOException, InterruptedException {
+        String base = "http://localhost:" + TEST_PORT;
+        HttpRequest wrongMethod = HttpRequest.newBuilder()
+                .uri(URI.create(base + "/tasks/1"))
+                .PUT(HttpRequest.BodyPublishers.noBody())
+                .build();
+        HttpResponse<String> response = client.send(wrongMethod, HttpResponse.BodyHandlers.ofString());
+        assertEquals(405, response.statusCode(), "Неизвестный метод для известного пути");
+        assertTrue(response.headers().firstValue("Allow").orElse("").contains("DELETE"));
+
+        assertEquals(400, get(base + "/tasks/99999999999").statusCode(), "Id вне диапазона int");
+        assertEquals(404, get(base + "/tasks/abc").statusCode());
+        assertEquals(404, get(base + "/epics/1/unknown").statusCode());
+        assertEquals(404, get(base + "/tasks/").statusCode());
+        assertEquals(200, get(base + "/epics/1/subtasks").statusCode());
+    }
+
+    private HttpResponse<String> get(String uri) throws IOException, InterruptedException {
+        return client.send(HttpRequest.newBuilder().uri(URI.create(uri)).GET().build(),
+                HttpResponse.BodyHandlers.ofString());
+    }
+}
@@ -0,0 +1,90 @@
+package http.handlers;
+
+import http.http.server.HttpTaskServer;
+import managers.Managers;
+import managers.TaskManager;
+import model.Task;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class EventsHandlerTest {
+    private TaskManager manager;
+    private HttpTaskServer taskServer;
+    private HttpClient client;
+    private final int PORT = 8080;
+    private final String BASE_URL = "http://localhost:" + PORT;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        manager = Managers.getDefault();
+        taskServer = new HttpTaskServer(manager);
+        taskServer.start();
+        client = HttpClient.newHttpClient();
+    }
+
+    @AfterEach
+    void tearDown() {
+        taskServer.stop();
+    }
+
+    @Test
+    void subscriberShouldReceiveChangeEvents() throws IOException, InterruptedException {
+        HttpRequest request = HttpRequest.newBuilder().uri(URI.create(BASE_URL + "/events")).GET().build();
+        HttpResponse<Stream<String>> response = client.send(request, HttpResponse.BodyHandlers.ofLines());
+        assertEquals(200, response.statusCode());
+        assertTrue(response.headers().firstValue("Content-Type").orElse("").startsWith("text/event-stream"));
+
+        Iterator<String> lines = response.body().iterator();
+        assertEquals("retry: 1000", lines.next(), "Поток должен начинаться с интервала переподключения");
+
+        Task created = manager.createTask(new Task("Task", "Description"));
+        String id = nextLineStartingWith(lines, "id: ");
+        assertEquals("id: " + manager.getVersion(), id);
+        assertEquals("event: change", lines.next());
+        String data = lines.next();
+        assertTrue(data.contains("\"type\":\"CREATED\""), data);
+        assertTrue(data.contains("\"id\":" + created.getId()), data);
+        response.body().close();
+    }
+
+    @Test
+    void reconnectShouldReplayChangesAfterLastEventId() throws IOException, InterruptedException {
+        manager.createTask(new Task("First", "Description"));
+        long lastSeen = manager.getVersion();
+        Task missed = manager.createTask(new Task("Missed", "Description"));
+
+        HttpRequest request = HttpRequest.newBuilder().uri(URI.create(BASE_URL + "/events"))
+                .header("Last-Event-ID", String.valueOf(lastSeen + 1))
+                .GET()
+                .build();
+        HttpResponse<Stream<String>> response = client.send(request, HttpResponse.BodyHandlers.ofLines());
+        Iterator<String> lines = response.body().iterator();
+
+        assertEquals("id: " + (lastSeen + 1), nextLineStartingWith(lines, "id: "),
+                "Версия последнего полученного события повторяется");
+        lines.next();
+        assertTrue(lines.next().contains("\"id\":" + missed.getId()));
+        response.body().close();
+    }
+
+    private static String nextLineStartingWith(Iterator<String> lines, String prefix) {
+        while (lines.hasNext()) {
+            String line = lines.next();
+            if (line.startsWith(prefix)) {
+                return line;
+            }
+        }
+        return fail("Поток событий закончился");
+    }
+}
@@ -0,0 +1,106 @@
+package http.server;
+
+import http.http.server.ExecutionMode;
+import http.http.server.HttpTaskServer;
+import managers.FileBackedTaskManager;
+import managers.PersistenceMode;
+import managers.TaskManager;
+import model.Task;
+import model.TaskStatus;
+
+import java.io.File;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+// Нагрузочный тест HttpTaskServer в разных режимах выполнения.
+// Менеджер с записью в файл: каждое создание задачи перезаписывает снимок,
+// клиенты делают 90% чтений задачи по id и 10% созданий.
+// Запуск: java -cp <classpath> http.server.HttpTaskServerLoadBenchmark
+public class HttpTaskServerLoadBenchmark {
+    private static final int PORT = 8090;
+    private static final int INITIAL_TASKS = 500;
+    private static final int CLIENTS = 32;
+    private static final long RUN_MILLIS = 5_000;
+
+    public static void main(String[] args) throws Exception {
+        System.out.println("Ядер: " + Runtime.getRuntime().availableProcessors() + ", клиентов: " + CLIENTS);
+        for (ExecutionMode mode : ExecutionMode.values()) {
+            run(mode);
+        }
+    }
+
+    private static void run(ExecutionMode mode) throws Exception {
+        File file = File.createTempFile("load", ".csv");
+        file.deleteOnExit();
+        TaskManager manager = new FileBackedTaskManager(file, PersistenceMode.SNAPSHOT);
+        LocalDateTime start = LocalDateTime.of(2030, 1, 1, 0, 0);
+        for (int i = 0; i < INITIAL_TASKS; i++) {
+            manager.createTask(new Task("Task " + i, "Description", TaskStatus.NEW,
+                    Duration.ofMinutes(30), start.plusHours(i)));
+        }
+        AtomicInteger nextSlot = new AtomicInteger(INITIAL_TASKS);
+
+        HttpTaskServer server = new HttpTaskServer(manager, PORT, mode);
+        server.start();
+        HttpClient client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+        LongAdder requests = new LongAdder();
+        List<Long> latencies = new ArrayList<>();
+        CountDownLatch done = new CountDownLatch(CLIENTS);
+        long deadline = System.currentTimeMillis() + RUN_MILLIS;
+        for (int c = 0; c < CLIENTS; c++) {
+            Thread.ofPlatform().start(() -> {
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                List<Long> own = new ArrayList<>();
+                try {
+                    while (System.currentTimeMillis() < deadline) {
+                        HttpRequest request;
+                        if (random.nextInt(10) == 0) {
+                            Task task = new Task("Task", "Description", TaskStatus.NEW,
+                                    Duration.ofMinutes(30), start.plusHours(nextSlot.getAndIncrement()));
+                            request = HttpRequest.newBuilder()
+                                    .uri(URI.create("http://localhost:" + PORT + "/tasks"))
+                                    .POST(HttpRequest.BodyPublishers.ofString(HttpTaskServer.getGson().toJson(task)))
+                                    .build();
+                        } else {
+                            request = HttpRequest.newBuilder()
+                                    .uri(URI.create("http://localhost:" + PORT + "/tasks/" + (1 + random.nextInt(INITIAL_TASKS))))
+                                    .GET()
+                                    .build();
+                        }
+                        long begin = System.nanoTime();
+                        client.send(request, HttpResponse.BodyHandlers.discarding());
+                        own.add(System.nanoTime() - begin);
+                        requests.increment();
+                    }
+                } catch (Exception e) {
+                    throw new RuntimeException(e);
+                } finally {
+                    synchronized (latencies) {
+                        latencies.addAll(own);
+                    }
+                    done.countDown();
+                }
+            });
+        }
+        done.await();
+        server.stop();
+        Files.deleteIfExists(file.toPath());
+
+        latencies.sort(null);
+        System.out.printf("%-16s %,8.0f запросов/с, p50 %6.2f мс, p99 %7.2f мс%n", mode,
+                requests.sum() * 1000.0 / RUN_MILLIS,
+                latencies.get(latencies.size() / 2) / 1e6,
+                latencies.get((int) (latencies.size() * 0.99)) / 1e6);
+    }
+}
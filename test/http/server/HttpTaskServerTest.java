@@ -1,7 +1,9 @@
 package http.server;
 
 import com.google.gson.Gson;
+import com.google.gson.JsonObject;
 import com.google.gson.reflect.TypeToken;
+import managers.ConcurrentTaskManager;
 import managers.Managers;
 import managers.TaskManager;
 import model.Epic;
@@ -11,16 +13,33 @@ import model.TaskStatus;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import http.http.handlers.BaseHttpHandler;
+import http.http.server.ExecutionMode;
 import http.http.server.HttpTaskServer;
-
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import metrics.SerializationEvent;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
+import java.lang.management.ManagementFactory;
 import java.net.URI;
 import java.net.http.HttpClient;
 import java.net.http.HttpRequest;
 import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.time.Duration;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPInputStream;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -391,4 +410,305 @@ class HttpTaskServerTest {
         assertEquals("Task 2", prioritizedTasks.get(0).getTitle()); // Раньше
         assertEquals("Task 1", prioritizedTasks.get(1).getTitle()); // Позже
     }
-}
\ No newline at end of file
+
+    @Test
+    void concurrentRequestsShouldBeServedInMultiThreadedModes() throws Exception {
+        for (ExecutionMode mode : List.of(ExecutionMode.BOUNDED_POOL, ExecutionMode.VIRTUAL_THREADS)) {
+            HttpTaskServer concurrentServer = new HttpTaskServer(Managers.getDefault(), PORT + 1, mode);
+            assertTrue(concurrentServer.getManager() instanceof ConcurrentTaskManager,
+                    "В многопоточном режиме менеджер должен быть потокобезопасным");
+            concurrentServer.start();
+            try {
+                LocalDateTime start = LocalDateTime.of(2030, 1, 1, 0, 0);
+                List<CompletableFuture<HttpResponse<String>>> responses = new ArrayList<>();
+                for (int i = 0; i < 50; i++) {
+                    Task task = new Task("Task " + i, "Description", TaskStatus.NEW,
+                            Duration.ofMinutes(30), start.plusHours(i));
+                    HttpRequest request = HttpRequest.newBuilder()
+                            .uri(URI.create("http://localhost:" + (PORT + 1) + "/tasks"))
+                            .POST(HttpRequest.BodyPublishers.ofString(gson.toJson(task)))
+                            .build();
+                    responses.add(client.sendAsync(request, HttpResponse.BodyHandlers.ofString()));
+                }
+                for (CompletableFuture<HttpResponse<String>> response : responses) {
+                    assertEquals(201, response.get(10, TimeUnit.SECONDS).statusCode(), mode.name());
+                }
+                assertEquals(50, concurrentServer.getManager().getAllTasks().size(), mode.name());
+            } finally {
+                concurrentServer.stop();
+            }
+        }
+    }
+
+    @Test
+    void listShouldBeSerializedWithSameJsonAsBeforeStreaming() throws IOException, InterruptedException {
+        LocalDateTime start = LocalDateTime.of(2030, 1, 1, 0, 0);
+        for (int i = 0; i < 2000; i++) {
+            manager.createTask(new Task("Task <" + i + ">", "Описание", TaskStatus.NEW,
+                    Duration.ofMinutes(30), start.plusHours(i)));
+        }
+        Epic epic = manager.createEpic(new Epic("Epic", "Description"));
+        manager.createSubtask(new Subtask("Subtask", "Description", epic.getId()));
+        manager.getTask(1);
+        manager.getSubtask(epic.getId() + 1);
+
+        for (String path : List.of("/tasks", "/history", "/prioritized")) {
+            HttpRequest request = HttpRequest.newBuilder().uri(URI.create(BASE_URL + path)).GET().build();
+            HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+
+            assertEquals(200, response.statusCode(), path);
+            if (path.equals("/history")) {
+                assertEquals("chunked", response.headers().firstValue("Transfer-Encoding").orElse(""), path);
+            }
+            List<?> expected = path.equals("/tasks") ? manager.getAllTasks()
+                    : path.equals("/history") ? manager.getHistory() : manager.getPrioritizedTasks();
+            assertEquals(gson.toJson(expected), response.body(), path);
+        }
+    }
+
+    @Test
+    void tasksShouldBePagedWithCursor() throws IOException, InterruptedException {
+        for (int i = 0; i < 5; i++) {
+            manager.createTask(new Task("Task " + i, "Description", TaskStatus.NEW, null, null));
+        }
+
+        List<Task> received = new ArrayList<>();
+        String query = "?limit=2";
+        while (query != null) {
+            HttpRequest request = HttpRequest.newBuilder().uri(URI.create(BASE_URL + "/tasks" + query)).GET().build();
+            HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+            assertEquals(200, response.statusCode());
+            List<Task> page = gson.fromJson(response.body(), new TypeToken<List<Task>>() {
+            }.getType());
+            assertTrue(page.size() <= 2);
+            received.addAll(page);
+            query = response.headers().firstValue("X-Next-Cursor").map(c -> "?limit=2&cursor=" + c).orElse(null);
+        }
+        assertEquals(5, received.size());
+        assertEquals("Task 4", received.get(4).getTitle());
+
+        HttpRequest badCursor = HttpRequest.newBuilder().uri(URI.create(BASE_URL + "/tasks?cursor=abc")).GET().build();
+        assertEquals(400, client.send(badCursor, HttpResponse.BodyHandlers.ofString()).statusCode());
+    }
+
+    @Test
+    void unchangedListShouldBeAnsweredWithNotModified() throws IOException, InterruptedException {
+        manager.createTask(new Task("Task", "Description", TaskStatus.NEW, null, null));
+        HttpRequest first = HttpRequest.newBuilder().uri(URI.create(BASE_URL + "/tasks")).GET().build();
+        HttpResponse<String> firstResponse = client.send(first, HttpResponse.BodyHandlers.ofString());
+        String etag = firstResponse.headers().firstValue("ETag").orElse(null);
+        assertNotNull(etag, "Ответ со списком должен содержать ETag");
+
+        HttpRequest conditional = HttpRequest.newBuilder().uri(URI.create(BASE_URL + "/tasks"))
+                .header("If-None-Match", etag).GET().build();
+        HttpResponse<String> notModified = client.send(conditional, HttpResponse.BodyHandlers.ofString());
+        assertEquals(304, notModified.statusCode());
+        assertEquals(etag, notModified.headers().firstValue("ETag").orElse(null));
+
+        manager.createTask(new Task("Another", "Description", TaskStatus.NEW, null, null));
+        HttpResponse<String> changed = client.send(conditional, HttpResponse.BodyHandlers.ofString());
+        assertEquals(200, changed.statusCode(), "После изменения данных должен вернуться новый список");
+        assertNotEquals(etag, changed.headers().firstValue("ETag").orElse(null));
+        assertEquals(gson.toJson(manager.getAllTasks()), changed.body());
+    }
+
+    @Test
+    void batchShouldBeAppliedAtomically() throws IOException, InterruptedException {
+        String batch = "[{\"action\": \"CREATE\", \"type\": \"EPIC\", \"task\": {\"title\": \"Epic\", \"description\": \"D\"}},"
+                + "{\"action\": \"CREATE\", \"type\": \"SUBTASK\", \"epicRef\": 0,"
+                + " \"task\": {\"title\": \"Subtask\", \"description\": \"D\"}}]";
+        HttpRequest request = HttpRequest.newBuilder().uri(URI.create(BASE_URL + "/batch"))
+                .POST(HttpRequest.BodyPublishers.ofString(batch)).build();
+        HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+
+        assertEquals(200, response.statusCode(), response.body());
+        assertEquals(1, manager.getAllEpics().size());
+        assertEquals(1, manager.getSubtasksByEpic(manager.getAllEpics().get(0).getId()).size());
+
+        String invalid = "[{\"action\": \"CREATE\", \"type\": \"TASK\", \"task\": {\"title\": \"Task\", \"description\": \"D\"}},"
+                + "{\"action\": \"DELETE\", \"type\": \"TASK\", \"id\": 999}]";
+        request = HttpRequest.newBuilder().uri(URI.create(BASE_URL + "/batch"))
+                .POST(HttpRequest.BodyPublishers.ofString(invalid)).build();
+        response = client.send(request, HttpResponse.BodyHandlers.ofString());
+
+        assertEquals(400, response.statusCode());
+        assertTrue(response.body().contains("NOT_FOUND"), response.body());
+        assertTrue(manager.getAllTasks().isEmpty(), "Отклонённый пакет не должен создавать задачи");
+
+        request = HttpRequest.newBuilder().uri(URI.create(BASE_URL + "/batch"))
+                .POST(HttpRequest.BodyPublishers.ofString("{}")).build();
+        assertEquals(400, client.send(request, HttpResponse.BodyHandlers.ofString()).statusCode());
+    }
+
+    @Test
+    void batchErrorsShouldNotEchoRequestFragments() throws IOException, InterruptedException {
+        String batch = "[{\"action\": \"CREATE\\\"}\", \"type\": \"TASK\", \"task\": {}}]";
+        HttpRequest request = HttpRequest.newBuilder().uri(URI.create(BASE_URL + "/batch"))
+                .POST(HttpRequest.BodyPublishers.ofString(batch)).build();
+        HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+
+        assertEquals(400, response.statusCode());
+        assertEquals("Invalid action", gson.fromJson(response.body(), JsonObject.class).get("error").getAsString(),
+                "Ответ должен быть корректным JSON с заранее известным текстом ошибки");
+    }
+
+    @Test
+    void largeResponsesShouldBeGzippedForClientsThatAcceptIt() throws IOException, InterruptedException {
+        for (int i = 0; i < 50; i++) {
+            Task task = manager.createTask(new Task("Task " + i, "Description", TaskStatus.NEW, null, null));
+            manager.getTask(task.getId());
+        }
+        for (String path : List.of("/tasks", "/tasks", "/history", "/tasks?limit=1000")) {
+            HttpRequest request = HttpRequest.newBuilder().uri(URI.create(BASE_URL + path))
+                    .header("Accept-Encoding", "gzip, deflate").GET().build();
+            HttpResponse<byte[]> response = client.send(request, HttpResponse.BodyHandlers.ofByteArray());
+
+            assertEquals(200, response.statusCode(), path);
+            assertEquals("gzip", response.headers().firstValue("Content-Encoding").orElse(""), path);
+            String body;
+            try (GZIPInputStream gzip = new GZIPInputStream(new ByteArrayInputStream(response.body()))) {
+                body = new String(gzip.readAllBytes(), StandardCharsets.UTF_8);
+            }
+            List<?> expected = path.equals("/history") ? manager.getHistory() : manager.getAllTasks();
+            assertEquals(gson.toJson(expected), body, path);
+        }
+
+        HttpRequest small = HttpRequest.newBuilder().uri(URI.create(BASE_URL + "/tasks/1"))
+                .header("Accept-Encoding", "gzip").GET().build();
+        assertTrue(client.send(small, HttpResponse.BodyHandlers.ofString()).headers()
+                .firstValue("Content-Encoding").isEmpty(), "Тело меньше порога не сжимается");
+        HttpRequest refused = HttpRequest.newBuilder().uri(URI.create(BASE_URL + "/tasks"))
+                .header("Accept-Encoding", "gzip;q=0").GET().build();
+        HttpResponse<String> plain = client.send(refused, HttpResponse.BodyHandlers.ofString());
+        assertTrue(plain.headers().firstValue("Content-Encoding").isEmpty());
+        assertEquals(gson.toJson(manager.getAllTasks()), plain.body());
+
+        taskServer.setCompressionThreshold(BaseHttpHandler.COMPRESSION_DISABLED);
+        HttpRequest disabled = HttpRequest.newBuilder().uri(URI.create(BASE_URL + "/history"))
+                .header("Accept-Encoding", "gzip").GET().build();
+        assertTrue(client.send(disabled, HttpResponse.BodyHandlers.ofString()).headers()
+                .firstValue("Content-Encoding").isEmpty(), "При отключённом сжатии ответ не сжимается");
+    }
+
+    @Test
+    void fieldsParameterShouldProjectListsAndSingleItems() throws IOException, InterruptedException {
+        Task task = manager.createTask(new Task("Task", "Long description", TaskStatus.NEW,
+                Duration.ofMinutes(15), LocalDateTime.of(2030, 1, 1, 10, 0)));
+
+        HttpResponse<String> full = client.send(HttpRequest.newBuilder().uri(URI.create(BASE_URL + "/tasks"))
+                .GET().build(), HttpResponse.BodyHandlers.ofString());
+        HttpResponse<String> projected = client.send(HttpRequest.newBuilder()
+                .uri(URI.create(BASE_URL + "/tasks?fields=id,title,taskStatus,startTime")).GET().build(),
+                HttpResponse.BodyHandlers.ofString());
+        String expected = "[{\"id\":" + task.getId()
+                + ",\"title\":\"Task\",\"taskStatus\":\"NEW\",\"startTime\":\"2030-01-01T10:00:00\"}]";
+        assertEquals(expected, projected.body());
+        assertNotEquals(full.headers().firstValue("ETag"), projected.headers().firstValue("ETag"),
+                "У разных наборов полей разные ETag");
+
+        HttpResponse<String> page = client.send(HttpRequest.newBuilder()
+                .uri(URI.create(BASE_URL + "/prioritized?limit=10&fields=id,title,taskStatus,startTime")).GET().build(),
+                HttpResponse.BodyHandlers.ofString());
+        assertEquals(expected, page.body());
+
+        HttpResponse<String> single = client.send(HttpRequest.newBuilder()
+                .uri(URI.create(BASE_URL + "/tasks/" + task.getId() + "?fields=title")).GET().build(),
+                HttpResponse.BodyHandlers.ofString());
+        assertEquals("{\"title\":\"Task\"}", single.body());
+
+        HttpResponse<String> invalid = client.send(HttpRequest.newBuilder()
+                .uri(URI.create(BASE_URL + "/tasks?fields=id,password")).GET().build(),
+                HttpResponse.BodyHandlers.ofString());
+        assertEquals(400, invalid.statusCode());
+    }
+
+    @Test
+    void metricsShouldCountRequestsByRouteAndStatus() throws IOException, InterruptedException {
+        Task task = manager.createTask(new Task("Task", "Description", TaskStatus.NEW,
+                Duration.ofMinutes(15), LocalDateTime.of(2030, 2, 1, 10, 0)));
+        client.send(HttpRequest.newBuilder().uri(URI.create(BASE_URL + "/tasks/" + task.getId())).GET().build(),
+                HttpResponse.BodyHandlers.ofString());
+        client.send(HttpRequest.newBuilder().uri(URI.create(BASE_URL + "/tasks/9999")).GET().build(),
+                HttpResponse.BodyHandlers.ofString());
+        client.send(HttpRequest.newBuilder().uri(URI.create(BASE_URL + "/unknown")).GET().build(),
+                HttpResponse.BodyHandlers.ofString());
+
+        HttpResponse<String> response = client.send(HttpRequest.newBuilder()
+                .uri(URI.create(BASE_URL + "/metrics")).GET().build(), HttpResponse.BodyHandlers.ofString());
+
+        assertEquals(200, response.statusCode());
+        assertTrue(response.headers().firstValue("Content-Type").orElse("").startsWith("text/plain; version=0.0.4"));
+        String text = response.body();
+        assertTrue(text.contains("http_requests_total{method=\"GET\",route=\"/tasks/{id}\",status=\"2xx\"} 1\n"), text);
+        assertTrue(text.contains("http_requests_total{method=\"GET\",route=\"/tasks/{id}\",status=\"4xx\"} 1\n"), text);
+        assertTrue(text.contains("http_requests_total{method=\"ANY\",route=\"unmatched\",status=\"4xx\"} 1\n"), text);
+        assertTrue(text.contains("http_request_duration_seconds_count{method=\"GET\",route=\"/tasks/{id}\"} 2\n"), text);
+        assertTrue(text.contains("taskmanager_operation_duration_seconds_count{operation=\"create\"} 1\n"),
+                "Операции менеджера попадают в те же метрики");
+    }
+
+    @Test
+    void serializationEventShouldCarryItemsAndBytes() throws IOException, InterruptedException {
+        Task task = manager.createTask(new Task("Task", "Description", TaskStatus.NEW,
+                Duration.ofMinutes(15), LocalDateTime.of(2030, 3, 1, 10, 0)));
+        manager.getTask(task.getId());
+        List<RecordedEvent> events;
+        HttpResponse<String> history;
+        try (Recording recording = new Recording()) {
+            recording.enable(SerializationEvent.class);
+            recording.start();
+            history = client.send(HttpRequest.newBuilder()
+                    .uri(URI.create(BASE_URL + "/history")).GET().build(), HttpResponse.BodyHandlers.ofString());
+            client.send(HttpRequest.newBuilder().uri(URI.create(BASE_URL + "/tasks")).GET().build(),
+                    HttpResponse.BodyHandlers.ofString());
+            recording.stop();
+            Path dump = Files.createTempFile("serialization", ".jfr");
+            recording.dump(dump);
+            events = RecordingFile.readAllEvents(dump);
+            Files.delete(dump);
+        }
+
+        for (String path : List.of("/history", "/tasks")) {
+            RecordedEvent event = events.stream()
+                    .filter(recorded -> recorded.getEventType().getName().equals("kanban.JsonSerialization"))
+                    .filter(recorded -> recorded.getString("path").equals(path))
+                    .findFirst().orElseThrow();
+            assertEquals(1, event.getInt("items"), path);
+            assertEquals(history.body().length(), event.getLong("bytes"), path);
+        }
+    }
+
+    @Test
+    void serverAndManagerShouldBeRegisteredInJmxWhileRunning() throws Exception {
+        manager.createTask(new Task("Task", "Description", TaskStatus.NEW,
+                Duration.ofMinutes(15), LocalDateTime.of(2030, 4, 1, 10, 0)));
+        for (int i = 0; i < 3; i++) {
+            client.send(HttpRequest.newBuilder().uri(URI.create(BASE_URL + "/tasks")).GET().build(),
+                    HttpResponse.BodyHandlers.ofString());
+        }
+        MBeanServer mbeans = ManagementFactory.getPlatformMBeanServer();
+        ObjectName serverName = new ObjectName("kanban:type=HttpTaskServer,name=" + PORT);
+        ObjectName managerName = new ObjectName("kanban:type=TaskManager,name=http-" + PORT);
+
+        assertEquals(1, mbeans.getAttribute(managerName, "TaskCount"));
+        assertEquals(PORT, mbeans.getAttribute(serverName, "Port"));
+        assertEquals(0, mbeans.getAttribute(serverName, "QueueDepth"));
+        assertEquals(3L, mbeans.getAttribute(serverName, "RequestCount"));
+        String[] slowest = (String[]) mbeans.invoke(serverName, "dumpSlowestRequests",
+                new Object[]{2}, new String[]{"int"});
+        assertEquals(2, slowest.length);
+        assertTrue(slowest[0].contains("GET /tasks 200"), slowest[0]);
+        manager.getTask(manager.getAllTasks().get(0).getId());
+        assertEquals(1, mbeans.getAttribute(managerName, "HistorySize"));
+        mbeans.invoke(managerName, "clearHistory", null, null);
+        mbeans.invoke(managerName, "compact", null, null);
+        assertEquals(0, mbeans.getAttribute(managerName, "HistorySize"),
+                "В режиме SINGLE_THREAD операции выполняются в потоке обработки запросов");
+
+        taskServer.stop();
+        assertFalse(mbeans.isRegistered(serverName), "После остановки сервер снимается с регистрации");
+        assertFalse(mbeans.isRegistered(managerName));
+        taskServer = new HttpTaskServer(manager);
+        taskServer.start();
+    }
+}
@@ -0,0 +1,41 @@
+package http.util;
+
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+import util.IntSet;
+
+import java.io.IOException;
+
+// IntSet как обычный массив чисел - для эталонной сериализации через рефлексию в тестах.
+// Сервер пишет subtaskIds сам в TaskAdapter
+class IntSetAdapter extends TypeAdapter<IntSet> {
+    @Override
+    public void write(JsonWriter out, IntSet value) throws IOException {
+        if (value == null) {
+            out.nullValue();
+            return;
+        }
+        out.beginArray();
+        for (int id : value.toArray()) {
+            out.value(id);
+        }
+        out.endArray();
+    }
+
+    @Override
+    public IntSet read(JsonReader in) throws IOException {
+        if (in.peek() == JsonToken.NULL) {
+            in.nextNull();
+            return new IntSet();
+        }
+        IntSet result = new IntSet();
+        in.beginArray();
+        while (in.hasNext()) {
+            result.add(in.nextInt());
+        }
+        in.endArray();
+        return result;
+    }
+}
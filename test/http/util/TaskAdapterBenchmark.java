@@ -0,0 +1,88 @@
+package http.util;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.reflect.TypeToken;
+import http.http.server.HttpTaskServer;
+import model.Epic;
+import model.Subtask;
+import model.Task;
+import model.TaskStatus;
+import util.IntSet;
+
+import java.lang.reflect.Type;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+// Сравнение сериализации задач через рефлексию Gson и через TaskAdapter.
+// Запуск: java -cp <classpath> http.util.TaskAdapterBenchmark
+public class TaskAdapterBenchmark {
+    private static final int SIZE = 10_000;
+    private static final int ROUNDS = 20;
+    private static final Type TASK_LIST = new TypeToken<List<Task>>() {}.getType();
+    private static final Type SUBTASK_LIST = new TypeToken<List<Subtask>>() {}.getType();
+
+    public static void main(String[] args) {
+        Gson reflective = new GsonBuilder()
+                .registerTypeAdapter(LocalDateTime.class, new LocalDateTimeAdapter())
+                .registerTypeAdapter(Duration.class, new DurationAdapter())
+                .registerTypeAdapter(IntSet.class, new IntSetAdapter())
+                .create();
+        Gson adapted = HttpTaskServer.getGson();
+
+        List<Task> tasks = new ArrayList<>(SIZE);
+        List<Subtask> subtasks = new ArrayList<>(SIZE);
+        LocalDateTime base = LocalDateTime.of(2030, 1, 1, 0, 0);
+        for (int id = 1; id <= SIZE; id++) {
+            if (id % 10 == 0) {
+                Epic epic = new Epic(id, "Epic " + id, "Description", TaskStatus.IN_PROGRESS,
+                        Duration.ofMinutes(90), base.plusHours(id), base.plusHours(id).plusMinutes(90));
+                for (int i = 1; i < 10; i++) {
+                    epic.addSubtaskId(id - i);
+                }
+                tasks.add(epic);
+            } else {
+                Subtask subtask = new Subtask(id, "Subtask " + id, "Description", TaskStatus.NEW, id - id % 10 + 10,
+                        Duration.ofMinutes(10), base.plusHours(id));
+                tasks.add(subtask);
+                subtasks.add(subtask);
+            }
+        }
+        String subtasksJson = reflective.toJson(subtasks, SUBTASK_LIST);
+
+        for (int warmup = 0; warmup < 5; warmup++) {
+            measureWrite(reflective, tasks);
+            measureWrite(adapted, tasks);
+            measureRead(reflective, subtasksJson);
+            measureRead(adapted, subtasksJson);
+        }
+        System.out.printf("Запись %,d задач:   рефлексия %,8.0f задач/мс, TaskAdapter %,8.0f задач/мс%n",
+                SIZE, measureWrite(reflective, tasks), measureWrite(adapted, tasks));
+        System.out.printf("Чтение %,d подзадач: рефлексия %,8.0f задач/мс, TaskAdapter %,8.0f задач/мс%n",
+                subtasks.size(), measureRead(reflective, subtasksJson), measureRead(adapted, subtasksJson));
+    }
+
+    private static double measureWrite(Gson gson, List<Task> tasks) {
+        long started = System.nanoTime();
+        long length = 0;
+        for (int round = 0; round < ROUNDS; round++) {
+            length += gson.toJson(tasks, TASK_LIST).length();
+        }
+        if (length == 0) {
+            throw new IllegalStateException();
+        }
+        return tasks.size() * (double) ROUNDS / ((System.nanoTime() - started) / 1_000_000.0);
+    }
+
+    private static double measureRead(Gson gson, String json) {
+        long started = System.nanoTime();
+        int count = 0;
+        for (int round = 0; round < ROUNDS; round++) {
+            List<Subtask> read = gson.fromJson(json, SUBTASK_LIST);
+            count += read.size();
+        }
+        return count / ((System.nanoTime() - started) / 1_000_000.0);
+    }
+}
@@ -0,0 +1,104 @@
+package http.util;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.reflect.TypeToken;
+import http.http.server.HttpTaskServer;
+import model.Epic;
+import model.Subtask;
+import model.Task;
+import model.TaskStatus;
+import org.junit.jupiter.api.Test;
+import util.IntSet;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TaskAdapterTest {
+    // Прежняя сериализация через рефлексию - эталон формата
+    private static final Gson reflective = new GsonBuilder()
+            .registerTypeAdapter(LocalDateTime.class, new LocalDateTimeAdapter())
+            .registerTypeAdapter(Duration.class, new DurationAdapter())
+            .registerTypeAdapter(IntSet.class, new IntSetAdapter())
+            .create();
+    private final Gson gson = HttpTaskServer.getGson();
+
+    @Test
+    void shouldWriteSameJsonAsReflection() {
+        Task task = new Task(1, "Task", "Description", TaskStatus.IN_PROGRESS,
+                Duration.ofMinutes(90), LocalDateTime.of(2030, 1, 1, 10, 0));
+        Task withoutTime = new Task(2, "No time", null, TaskStatus.NEW, null, null);
+        Epic epic = new Epic(3, "Epic", "Description", TaskStatus.DONE,
+                Duration.ofMinutes(30), LocalDateTime.of(2030, 1, 2, 10, 0), LocalDateTime.of(2030, 1, 2, 10, 30));
+        epic.addSubtaskId(7);
+        epic.addSubtaskId(4);
+        Subtask subtask = new Subtask(4, "Subtask", "Description", TaskStatus.DONE, 3,
+                Duration.ofMinutes(30), LocalDateTime.of(2030, 1, 2, 10, 0, 15));
+
+        for (Task value : List.of(task, withoutTime, epic, new Epic("Empty", "Epic"), subtask)) {
+            assertEquals(reflective.toJson(value), gson.toJson(value), "Формат JSON не должен измениться");
+        }
+        List<Task> mixed = List.of(task, epic, subtask);
+        assertEquals(reflective.toJson(mixed), gson.toJson(mixed), "Список должен писаться по фактическим классам");
+    }
+
+    @Test
+    void shouldReadWhatReflectionWrites() {
+        Epic epic = new Epic(3, "Epic", "Description", TaskStatus.IN_PROGRESS,
+                Duration.ofMinutes(30), LocalDateTime.of(2030, 1, 2, 10, 0), LocalDateTime.of(2030, 1, 2, 10, 30));
+        epic.addSubtaskId(5);
+        Subtask subtask = new Subtask(4, "Subtask", "Description", TaskStatus.DONE, 3,
+                Duration.ofMinutes(30), LocalDateTime.of(2030, 1, 2, 10, 0));
+
+        Epic readEpic = gson.fromJson(reflective.toJson(epic), Epic.class);
+        assertEquals(reflective.toJson(epic), reflective.toJson(readEpic));
+        assertEquals(TaskStatus.IN_PROGRESS, readEpic.getStatus(), "Статус эпика читается из JSON как есть");
+        Subtask readSubtask = gson.fromJson(reflective.toJson(subtask), Subtask.class);
+        assertEquals(reflective.toJson(subtask), reflective.toJson(readSubtask));
+
+        Task partial = gson.fromJson("{\"title\":\"Partial\",\"unknown\":{\"a\":[1]},\"epicId\":5,\"startTime\":null}", Task.class);
+        assertEquals("Partial", partial.getTitle());
+        assertEquals("", partial.getDescription(), "Отсутствующие поля сохраняют значения по умолчанию");
+        assertEquals(TaskStatus.NEW, partial.getStatus());
+        assertNull(partial.getStartTime());
+
+        List<Subtask> list = gson.fromJson(reflective.toJson(List.of(subtask)), new TypeToken<List<Subtask>>() {}.getType());
+        assertEquals(3, list.get(0).getEpicId());
+    }
+
+    @Test
+    void fastTimeFormatShouldMatchIsoFormatter() {
+        for (LocalDateTime time : List.of(LocalDateTime.of(2030, 1, 2, 3, 4, 5), LocalDateTime.of(999, 12, 31, 23, 59),
+                LocalDateTime.of(2030, 1, 1, 0, 0, 0, 500_000_000), LocalDateTime.of(12345, 6, 7, 8, 9))) {
+            String text = TaskAdapter.formatTime(time);
+            assertEquals(time.format(DateTimeFormatter.ISO_LOCAL_DATE_TIME), text);
+            assertEquals(time, TaskAdapter.parseTime(text));
+        }
+        assertThrows(DateTimeParseException.class, () -> TaskAdapter.parseTime("2030-13-01T00:00:00"));
+    }
+
+    @Test
+    void shouldWriteOnlyRequestedFields() throws IOException {
+        Epic epic = new Epic(3, "Epic", "Description", TaskStatus.DONE,
+                Duration.ofMinutes(30), LocalDateTime.of(2030, 1, 2, 10, 0), LocalDateTime.of(2030, 1, 2, 10, 30));
+        epic.addSubtaskId(4);
+        TaskFields fields = TaskFields.parse("id, title,taskStatus,startTime,epicId");
+
+        StringWriter json = new StringWriter();
+        TaskAdapter.write(gson.newJsonWriter(json), epic, fields);
+
+        assertEquals("{\"id\":3,\"title\":\"Epic\",\"taskStatus\":\"DONE\",\"startTime\":\"2030-01-02T10:00:00\"}",
+                json.toString());
+        assertSame(fields, TaskFields.parse("id, title,taskStatus,startTime,epicId"), "Набор полей компилируется один раз");
+        assertSame(TaskFields.ALL, TaskFields.parse(null));
+        assertThrows(IllegalArgumentException.class, () -> TaskFields.parse("id,secret"));
+        assertThrows(IllegalArgumentException.class, () -> TaskFields.parse(" , "));
+    }
+}
@@ -0,0 +1,46 @@
+package managers;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ChangeLogTest {
+
+    @Test
+    void shouldReturnChangesAfterVersion() {
+        ChangeLog log = new ChangeLog(10);
+        log.add(1, ChangeType.CREATED, TaskType.TASK, 1);
+        log.add(2, ChangeType.CREATED, TaskType.SUBTASK, 2);
+        log.add(2, ChangeType.UPDATED, TaskType.EPIC, 3);
+        log.add(3, ChangeType.DELETED, TaskType.TASK, 1);
+
+        ChangeSet changes = log.since(1, 3);
+        assertFalse(changes.isResyncRequired());
+        assertEquals(3, changes.getVersion());
+        assertEquals(List.of(2, 3, 1), ids(changes));
+        assertTrue(log.since(3, 3).getChanges().isEmpty(), "После текущей версии изменений нет");
+    }
+
+    @Test
+    void shouldRequireResyncWhenChangesWereEvicted() {
+        ChangeLog log = new ChangeLog(3);
+        for (int version = 1; version <= 5; version++) {
+            log.add(version, ChangeType.UPDATED, TaskType.TASK, version);
+        }
+
+        assertTrue(log.since(1, 5).isResyncRequired(), "Изменение версии 2 уже вытеснено");
+        assertEquals(List.of(3, 4, 5), ids(log.since(2, 5)));
+        assertTrue(log.since(6, 5).isResyncRequired(), "Версия из будущего - признак перезапуска");
+
+        log.reset(5);
+        assertTrue(log.since(4, 5).isResyncRequired());
+        assertFalse(log.since(5, 5).isResyncRequired());
+    }
+
+    private static List<Integer> ids(ChangeSet changes) {
+        return changes.getChanges().stream().map(Change::getId).collect(Collectors.toList());
+    }
+}
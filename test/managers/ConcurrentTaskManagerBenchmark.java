@@ -0,0 +1,67 @@
+package managers;
+
+import model.Epic;
+import model.Subtask;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+
+// Пропускная способность ConcurrentTaskManager при росте числа потоков:
+// 95% чтений (список подзадач эпика), 5% записей (обновление подзадачи).
+// Запуск: java -cp <classpath> managers.ConcurrentTaskManagerBenchmark
+public class ConcurrentTaskManagerBenchmark {
+    private static final int EPICS = 100;
+    private static final int SUBTASKS_PER_EPIC = 20;
+    private static final long RUN_MILLIS = 2_000;
+
+    public static void main(String[] args) throws Exception {
+        ConcurrentTaskManager manager = new ConcurrentTaskManager(new InMemoryTaskManager());
+        List<Integer> epicIds = new ArrayList<>();
+        List<Subtask> subtasks = new ArrayList<>();
+        for (int i = 0; i < EPICS; i++) {
+            Epic epic = manager.createEpic(new Epic("Epic " + i, "Description"));
+            epicIds.add(epic.getId());
+            for (int j = 0; j < SUBTASKS_PER_EPIC; j++) {
+                subtasks.add(manager.createSubtask(new Subtask("Subtask " + j, "Description", epic.getId())));
+            }
+        }
+
+        int cores = Runtime.getRuntime().availableProcessors();
+        System.out.println("Ядер: " + cores);
+        for (int threads = 1; threads <= Math.max(8, cores); threads *= 2) {
+            run(manager, epicIds, subtasks, threads, 95);
+            run(manager, epicIds, subtasks, threads, 100);
+        }
+    }
+
+    private static void run(TaskManager manager, List<Integer> epicIds, List<Subtask> subtasks,
+                            int threads, int readPercent) throws InterruptedException {
+        LongAdder operations = new LongAdder();
+        CountDownLatch done = new CountDownLatch(threads);
+        long deadline = System.currentTimeMillis() + RUN_MILLIS;
+        for (int t = 0; t < threads; t++) {
+            Thread thread = new Thread(() -> {
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                long count = 0;
+                while ((count & 255) != 0 || System.currentTimeMillis() < deadline) {
+                    if (random.nextInt(100) < readPercent) {
+                        manager.getSubtasksByEpic(epicIds.get(random.nextInt(epicIds.size())));
+                    } else {
+                        Subtask subtask = new Subtask(subtasks.get(random.nextInt(subtasks.size())));
+                        manager.updateSubtask(subtask);
+                    }
+                    count++;
+                }
+                operations.add(count);
+                done.countDown();
+            });
+            thread.start();
+        }
+        done.await();
+        System.out.printf("потоков %2d, чтений %3d%%: %,12.0f операций/с%n",
+                threads, readPercent, operations.sum() * 1000.0 / RUN_MILLIS);
+    }
+}
@@ -0,0 +1,175 @@
+package managers;
+
+import model.Epic;
+import model.Subtask;
+import model.Task;
+import model.TaskStatus;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ConcurrentTaskManagerTest extends TaskManagerTest<ConcurrentTaskManager> {
+    private static final LocalDateTime BASE = LocalDateTime.of(2030, 1, 1, 0, 0);
+
+    @Override
+    protected ConcurrentTaskManager createManager() {
+        return new ConcurrentTaskManager(new InMemoryTaskManager());
+    }
+
+    @Test
+    void concurrentWritersShouldKeepInvariants() throws Exception {
+        int threads = 8;
+        int perThread = 200;
+        List<Epic> epics = new ArrayList<>();
+        for (int i = 0; i < threads; i++) {
+            epics.add(manager.createEpic(new Epic("Epic " + i, "Description")));
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicInteger rejected = new AtomicInteger();
+        List<Future<?>> futures = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            int thread = t;
+            futures.add(executor.submit(() -> {
+                start.await();
+                for (int i = 0; i < perThread; i++) {
+                    // Все потоки претендуют на одни и те же интервалы: выиграть может только один
+                    Subtask subtask = new Subtask("Subtask", "Description", epics.get(thread).getId());
+                    subtask.setStartTime(BASE.plusHours(i));
+                    subtask.setDuration(Duration.ofMinutes(30));
+                    subtask.setStatus(TaskStatus.DONE);
+                    try {
+                        manager.createSubtask(subtask);
+                    } catch (ManagerValidationException e) {
+                        rejected.incrementAndGet();
+                    }
+                    manager.getAllSubtasks();
+                    manager.getSubtasksByEpic(epics.get(thread).getId());
+                }
+                return null;
+            }));
+        }
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get(30, TimeUnit.SECONDS);
+        }
+        executor.shutdown();
+
+        assertEquals(perThread, manager.getAllSubtasks().size());
+        assertEquals(perThread * (threads - 1), rejected.get());
+        List<Task> prioritized = manager.getPrioritizedTasks();
+        assertEquals(perThread, prioritized.size());
+        for (int i = 1; i < prioritized.size(); i++) {
+            assertTrue(prioritized.get(i - 1).getEndTime().isBefore(prioritized.get(i).getStartTime()));
+        }
+        int subtasksInEpics = 0;
+        for (Epic epic : manager.getAllEpics()) {
+            int count = manager.getSubtasksByEpic(epic.getId()).size();
+            subtasksInEpics += count;
+            assertEquals(count == 0 ? TaskStatus.NEW : TaskStatus.DONE, epic.getStatus());
+        }
+        assertEquals(perThread, subtasksInEpics);
+    }
+
+    @Test
+    void readersShouldGetStableCopiesOfEpicsWhileWritersAddSubtasks() throws Exception {
+        Epic epic = manager.createEpic(new Epic("Epic", "Description"));
+        int subtasks = 2000;
+        ExecutorService executor = Executors.newFixedThreadPool(3);
+        CountDownLatch start = new CountDownLatch(1);
+        try {
+            Future<?> writer = executor.submit(() -> {
+                start.await();
+                for (int i = 0; i < subtasks; i++) {
+                    Subtask subtask = new Subtask("Subtask", "Description", epic.getId());
+                    subtask.setStartTime(BASE.plusHours(i));
+                    subtask.setDuration(Duration.ofMinutes(30));
+                    manager.createSubtask(subtask);
+                }
+                return null;
+            });
+            List<Future<?>> readers = new ArrayList<>();
+            for (int r = 0; r < 2; r++) {
+                readers.add(executor.submit(() -> {
+                    start.await();
+                    while (!writer.isDone()) {
+                        for (Epic copy : manager.getAllEpics()) {
+                            int size = copy.getSubtaskIdSet().size();
+                            assertEquals(size, copy.getSubtaskIdSet().toArray().length);
+                            Epic single = manager.getEpic(copy.getId());
+                            assertNotSame(single, manager.getEpic(copy.getId()), "Каждое чтение - своя копия");
+                            assertEquals(size, copy.getSubtaskIdSet().toArray().length,
+                                    "Копия не меняется при последующих записях");
+                        }
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            writer.get(30, TimeUnit.SECONDS);
+            for (Future<?> reader : readers) {
+                reader.get(30, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        Epic result = manager.getEpic(epic.getId());
+        assertEquals(subtasks, result.getSubtaskIdSet().size());
+        assertEquals(BASE, result.getStartTime());
+    }
+
+    @Test
+    void readersShouldNotHangWhileWritersRebuildTables() throws Exception {
+        Epic epic = manager.createEpic(new Epic("Epic", "Description"));
+        manager.createSubtask(new Subtask("Subtask", "Description", epic.getId()));
+        ExecutorService executor = Executors.newFixedThreadPool(3);
+        CountDownLatch start = new CountDownLatch(1);
+        try {
+            // Массовые создания и удаления эпиков многократно перестраивают таблицу поиска
+            Future<?> writer = executor.submit(() -> {
+                start.await();
+                for (int round = 0; round < 200; round++) {
+                    List<Integer> ids = new ArrayList<>();
+                    for (int i = 0; i < 100; i++) {
+                        ids.add(manager.createEpic(new Epic("Epic " + i, "Description")).getId());
+                    }
+                    for (int id : ids) {
+                        manager.deleteEpic(id);
+                    }
+                }
+                return null;
+            });
+            List<Future<?>> readers = new ArrayList<>();
+            for (int r = 0; r < 2; r++) {
+                readers.add(executor.submit(() -> {
+                    start.await();
+                    while (!writer.isDone()) {
+                        assertEquals(1, manager.getSubtasksByEpic(epic.getId()).size());
+                        assertFalse(manager.getAllEpics().isEmpty());
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            writer.get(30, TimeUnit.SECONDS);
+            for (Future<?> reader : readers) {
+                reader.get(30, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
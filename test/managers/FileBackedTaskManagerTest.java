@@ -1,11 +1,23 @@
 package managers;
 
+import model.Epic;
+import model.Subtask;
+import model.Task;
+import model.TaskStatus;
+import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.io.TempDir;
 
 import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
 import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.*;
 
 class FileBackedTaskManagerTest extends TaskManagerTest<FileBackedTaskManager> {
+    private static final int DEFAULT_INTERVAL = FileBackedTaskManager.DEFAULT_SNAPSHOT_INTERVAL;
 
     @TempDir
     Path tempDir;
@@ -20,4 +32,74 @@ class FileBackedTaskManagerTest extends TaskManagerTest<FileBackedTaskManager> {
             throw new RuntimeException("Failed to create temp file", e);
         }
     }
+
+    @Test
+    void shouldRestoreTasksEpicsAndSubtasksFromFile() {
+        LocalDateTime now = LocalDateTime.now();
+        task.setStartTime(now);
+        task.setDuration(Duration.ofMinutes(30));
+        manager.createTask(task);
+
+        subtask1.setStartTime(now.plusHours(1));
+        subtask1.setDuration(Duration.ofMinutes(15));
+        subtask1.setStatus(TaskStatus.DONE);
+        manager.createSubtask(subtask1);
+        subtask2.setStartTime(null);
+        subtask2.setDuration(null);
+        manager.createSubtask(subtask2);
+
+        FileBackedTaskManager loaded = FileBackedTaskManager.loadFromFile(tempFile);
+
+        assertEquals(1, loaded.getAllTasks().size());
+        assertEquals(2, loaded.getAllSubtasks().size());
+        Epic loadedEpic = loaded.getEpic(epic.getId());
+        assertEquals(TaskStatus.IN_PROGRESS, loadedEpic.getStatus(), "Статус эпика должен пересчитываться при загрузке");
+        assertEquals(now.plusHours(1), loadedEpic.getStartTime());
+        assertEquals(2, loaded.getPrioritizedTasks().size());
+    }
+
+    @Test
+    void shouldNotRewriteFileWhileLoading() throws IOException {
+        manager.createTask(task);
+        String content = Files.readString(tempFile.toPath());
+        assertTrue(tempFile.setLastModified(0));
+
+        FileBackedTaskManager.loadFromFile(tempFile);
+
+        assertEquals(0, tempFile.lastModified(), "Загрузка не должна перезаписывать файл");
+        assertEquals(content, Files.readString(tempFile.toPath()));
+    }
+
+    @Test
+    void shouldRejectFileWithOverlappingTasks() throws IOException {
+        LocalDateTime start = LocalDateTime.of(2025, 1, 1, 10, 0);
+        Task first = new Task(1, "First", "Description", TaskStatus.NEW, Duration.ofMinutes(30), start);
+        Subtask second = new Subtask(3, "Second", "Description", TaskStatus.NEW, 2,
+                Duration.ofMinutes(30), start.plusMinutes(10));
+        Files.writeString(tempFile.toPath(), CsvFormat.getHeader() + "\n"
+                + CsvFormat.toString(first) + "\n"
+                + CsvFormat.toString(new Epic(2, "Epic", "Description", TaskStatus.NEW, null, null, null)) + "\n"
+                + CsvFormat.toString(second) + "\n");
+
+        assertThrows(ManagerSaveException.class, () -> FileBackedTaskManager.loadFromFile(tempFile));
+    }
+
+    @Test
+    void shouldContinueIdsAfterLeasedRangeOnReload() {
+        FileBackedTaskManager leasing = FileBackedTaskManager.create(tempFile, PersistenceMode.JOURNAL,
+                DEFAULT_INTERVAL, Durability.SYNC, FileBackedTaskManager.DEFAULT_FLUSH_WINDOW_MILLIS,
+                FileBackedTaskManager.DEFAULT_MAX_BATCH_SIZE, new BlockIdAllocator(10));
+        Task created = leasing.createTask(new Task("Task", "Description"));
+        assertEquals(1, created.getId());
+
+        FileBackedTaskManager loaded = FileBackedTaskManager.loadFromFile(tempFile, PersistenceMode.JOURNAL,
+                Durability.SYNC, new BlockIdAllocator(10));
+        Task next = loaded.createTask(new Task("Next", "Description"));
+        assertEquals(11, next.getId(), "id из уже зарезервированного диапазона не должны выдаваться повторно");
+
+        loaded.compact();
+        FileBackedTaskManager compacted = FileBackedTaskManager.loadFromFile(tempFile);
+        assertEquals(21, compacted.createTask(new Task("Third", "Description")).getId(),
+                "Граница резерва должна сохраняться в снимке");
+    }
 }
@@ -0,0 +1,107 @@
+package managers;
+
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import metrics.EpicRollupEvent;
+import metrics.PersistEvent;
+import metrics.ValidationEvent;
+import model.Epic;
+import model.Subtask;
+import model.Task;
+import model.TaskStatus;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FlightRecorderEventsTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void eventsShouldBeDisabledByDefault() throws IOException {
+        List<RecordedEvent> events;
+        try (Recording recording = new Recording()) {
+            recording.start();
+            new InMemoryTaskManager().createTask(new Task("Task", "Description", TaskStatus.NEW,
+                    Duration.ofMinutes(10), LocalDateTime.of(2030, 1, 1, 10, 0)));
+            recording.stop();
+            events = read(recording);
+        }
+
+        assertTrue(events.stream().noneMatch(event -> event.getEventType().getName().startsWith("kanban.")),
+                "Без явного включения события не записываются");
+    }
+
+    @Test
+    void shouldRecordValidationRollupAndPersistEvents() throws IOException {
+        File file = tempDir.resolve("tasks.csv").toFile();
+        FileBackedTaskManager manager = new FileBackedTaskManager(file, PersistenceMode.JOURNAL, 100);
+        List<RecordedEvent> events;
+        try (Recording recording = new Recording()) {
+            recording.enable(ValidationEvent.class);
+            recording.enable(EpicRollupEvent.class);
+            recording.enable(PersistEvent.class);
+            recording.start();
+            Epic epic = manager.createEpic(new Epic("Epic", "Description"));
+            manager.createSubtask(new Subtask(0, "Subtask", "Description", TaskStatus.DONE, epic.getId(),
+                    Duration.ofMinutes(30), LocalDateTime.of(2030, 1, 1, 10, 0)));
+            manager.compact();
+            recording.stop();
+            events = read(recording);
+        }
+
+        RecordedEvent validation = single(events, "kanban.OverlapValidation");
+        assertEquals("SUBTASK", validation.getString("taskType"));
+        assertFalse(validation.getBoolean("overlap"));
+
+        RecordedEvent rollup = single(events, "kanban.EpicRollup");
+        assertEquals(1, rollup.getInt("epicId"));
+        assertEquals(1, rollup.getInt("subtaskCount"));
+        assertEquals("DONE", rollup.getString("status"));
+
+        List<RecordedEvent> persisted = byName(events, "kanban.Persist");
+        List<RecordedEvent> journal = persisted.stream()
+                .filter(event -> event.getString("target").equals(PersistEvent.JOURNAL))
+                .collect(Collectors.toList());
+        assertTrue(journal.size() >= 2, "Каждая запись журнала - отдельное событие");
+        assertTrue(journal.stream().allMatch(event -> event.getInt("records") >= 1 && event.getLong("bytes") > 0));
+        RecordedEvent snapshot = persisted.stream()
+                .filter(event -> event.getString("target").equals(PersistEvent.SNAPSHOT))
+                .findFirst().orElseThrow();
+        assertEquals(2, snapshot.getInt("records"), "Эпик и подзадача");
+        assertEquals(file.length(), snapshot.getLong("bytes"));
+    }
+
+    private static List<RecordedEvent> read(Recording recording) throws IOException {
+        Path dump = Files.createTempFile("events", ".jfr");
+        try {
+            recording.dump(dump);
+            return RecordingFile.readAllEvents(dump);
+        } finally {
+            Files.deleteIfExists(dump);
+        }
+    }
+
+    private static List<RecordedEvent> byName(List<RecordedEvent> events, String name) {
+        return events.stream().filter(event -> event.getEventType().getName().equals(name))
+                .collect(Collectors.toList());
+    }
+
+    private static RecordedEvent single(List<RecordedEvent> events, String name) {
+        List<RecordedEvent> matching = byName(events, name);
+        assertEquals(1, matching.size(), name);
+        return matching.get(0);
+    }
+}
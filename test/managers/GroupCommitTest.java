@@ -0,0 +1,114 @@
+package managers;
+
+import model.Epic;
+import model.Subtask;
+import model.Task;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class GroupCommitTest {
+    @TempDir
+    Path tempDir;
+    private FileBackedTaskManager manager;
+
+    @AfterEach
+    void tearDown() {
+        if (manager != null) {
+            manager.close();
+        }
+    }
+
+    private File newFile() throws Exception {
+        return File.createTempFile("group", ".csv", tempDir.toFile());
+    }
+
+    @Test
+    void groupModeShouldPersistBeforeReturning() throws Exception {
+        File file = newFile();
+        manager = new FileBackedTaskManager(file, PersistenceMode.JOURNAL, Durability.GROUP);
+
+        Epic epic = manager.createEpic(new Epic("Epic", "Description"));
+        manager.createSubtask(new Subtask("Subtask", "Description", epic.getId()));
+
+        FileBackedTaskManager loaded = FileBackedTaskManager.loadFromFile(file, PersistenceMode.JOURNAL);
+        assertEquals(1, loaded.getAllEpics().size());
+        assertEquals(1, loaded.getAllSubtasks().size());
+        assertTrue(manager.getFlushStats().getFlushCount() > 0);
+    }
+
+    @Test
+    void asyncModeShouldCoalesceWritesIntoBatches() throws Exception {
+        File file = newFile();
+        manager = new FileBackedTaskManager(file, PersistenceMode.JOURNAL,
+                FileBackedTaskManager.DEFAULT_SNAPSHOT_INTERVAL, Durability.ASYNC, 200, 1000);
+
+        for (int i = 0; i < 50; i++) {
+            manager.createTask(new Task("Task " + i, "Description"));
+        }
+        manager.flush();
+
+        FlushStats stats = manager.getFlushStats();
+        assertEquals(50, stats.getRecordCount());
+        assertTrue(stats.getMaxBatchSize() > 1, "Записи должны объединяться в пачки");
+        assertEquals(50, FileBackedTaskManager.loadFromFile(file, PersistenceMode.JOURNAL).getAllTasks().size());
+    }
+
+    @Test
+    void snapshotModeShouldKeepOnlyLatestSnapshotOfBatch() throws Exception {
+        File file = newFile();
+        manager = new FileBackedTaskManager(file, PersistenceMode.SNAPSHOT,
+                FileBackedTaskManager.DEFAULT_SNAPSHOT_INTERVAL, Durability.ASYNC, 200, 1000);
+
+        Task task = manager.createTask(new Task("Task", "Description"));
+        manager.createTask(new Task("Second", "Description"));
+        manager.deleteTask(task.getId());
+        manager.close();
+
+        FileBackedTaskManager loaded = FileBackedTaskManager.loadFromFile(file);
+        assertEquals(1, loaded.getAllTasks().size());
+        assertEquals("Second", loaded.getAllTasks().get(0).getTitle());
+    }
+
+    @Test
+    void groupModeShouldMergeWritesOfConcurrentThreads() throws Exception {
+        File file = newFile();
+        manager = new FileBackedTaskManager(file, PersistenceMode.JOURNAL, Durability.GROUP);
+        TaskManager concurrent = new ConcurrentTaskManager(manager);
+        int threads = 8;
+        int perThread = 50;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                futures.add(executor.submit(() -> {
+                    for (int i = 0; i < perThread; i++) {
+                        concurrent.createTask(new Task("Task", "Description"));
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+
+        FlushStats stats = manager.getFlushStats();
+        assertTrue(stats.getMaxBatchSize() > 1, "Записи разных потоков должны попадать в одну пачку: " + stats);
+        assertTrue(stats.getFlushCount() < threads * perThread);
+        assertEquals(threads * perThread,
+                FileBackedTaskManager.loadFromFile(file, PersistenceMode.JOURNAL).getAllTasks().size(),
+                "Каждая операция записана до возврата, без flush()");
+    }
+}
@@ -0,0 +1,78 @@
+package managers;
+
+import model.Task;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class IdAllocatorTest {
+
+    @Test
+    void managersShouldNotShareIdCounter() {
+        TaskManager first = new InMemoryTaskManager();
+        TaskManager second = new InMemoryTaskManager();
+
+        assertEquals(1, first.createTask(new Task("Task", "Description")).getId());
+        assertEquals(1, second.createTask(new Task("Task", "Description")).getId(),
+                "У каждого менеджера должен быть свой счётчик id");
+    }
+
+    @Test
+    void explicitIdShouldNotBeHandedOutAgain() {
+        TaskManager manager = new InMemoryTaskManager(new BlockIdAllocator(4));
+        Task explicit = new Task("Explicit", "Description");
+        explicit.setId(2);
+        manager.createTask(explicit);
+
+        assertEquals(3, manager.createTask(new Task("Task", "Description")).getId());
+    }
+
+    @Test
+    void blockAllocatorShouldLeaseRangesAndNotifyListener() {
+        BlockIdAllocator allocator = new BlockIdAllocator(3);
+        List<Integer> leases = new ArrayList<>();
+        allocator.setLeaseListener(leases::add);
+
+        for (int i = 1; i <= 7; i++) {
+            assertEquals(i, allocator.nextId());
+        }
+        assertEquals(List.of(3, 6, 9), leases);
+        assertEquals(9, allocator.getLeasedUpTo());
+
+        allocator.reserve(20);
+        assertEquals(21, allocator.nextId(), "После резерва выдача должна продолжаться за ним");
+        assertEquals(List.of(3, 6, 9, 23), leases);
+    }
+
+    @Test
+    void blockAllocatorShouldHandOutUniqueIdsConcurrently() throws Exception {
+        BlockIdAllocator allocator = new BlockIdAllocator(16);
+        Set<Integer> ids = ConcurrentHashMap.newKeySet();
+        int threads = 8;
+        int perThread = 10_000;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            futures.add(executor.submit(() -> {
+                for (int i = 0; i < perThread; i++) {
+                    assertTrue(ids.add(allocator.nextId()), "id не должен повторяться");
+                }
+            }));
+        }
+        for (Future<?> future : futures) {
+            future.get(30, TimeUnit.SECONDS);
+        }
+        executor.shutdown();
+
+        assertEquals(threads * perThread, ids.size());
+    }
+}
@@ -0,0 +1,144 @@
+package managers;
+
+import model.Epic;
+import model.Subtask;
+import model.Task;
+import model.TaskStatus;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class JournaledFileBackedTaskManagerTest extends TaskManagerTest<FileBackedTaskManager> {
+
+    @TempDir
+    Path tempDir;
+    private File tempFile;
+
+    @Override
+    protected FileBackedTaskManager createManager() {
+        try {
+            tempFile = File.createTempFile("journaled", ".csv", tempDir.toFile());
+            return new FileBackedTaskManager(tempFile, PersistenceMode.JOURNAL, 5);
+        } catch (Exception e) {
+            throw new RuntimeException("Failed to create temp file", e);
+        }
+    }
+
+    @Test
+    void shouldAppendOneRecordPerChange() throws IOException {
+        File journal = FileBackedTaskManager.getJournalFile(tempFile);
+        long before = Files.readAllLines(journal.toPath()).size();
+
+        manager.createTask(task);
+        manager.deleteTask(task.getId());
+
+        assertEquals(before + 2, Files.readAllLines(journal.toPath()).size());
+    }
+
+    @Test
+    void shouldRecoverFromSnapshotAndJournalTail() {
+        subtask1.setStatus(TaskStatus.DONE);
+        manager.createSubtask(subtask1);
+        manager.createSubtask(subtask2);
+        manager.createTask(task);
+        Task removed = manager.createTask(new Task("Removed", "Description"));
+        manager.deleteTask(removed.getId());
+        // Снимок уже сделан (интервал 5), дальше записи идут в хвост журнала
+        subtask2.setStatus(TaskStatus.DONE);
+        manager.updateSubtask(subtask2);
+        Epic renamed = new Epic("Renamed", "Description");
+        renamed.setId(epic.getId());
+        manager.updateEpic(renamed);
+
+        FileBackedTaskManager loaded = FileBackedTaskManager.loadFromFile(tempFile, PersistenceMode.JOURNAL);
+
+        assertEquals(1, loaded.getAllTasks().size());
+        assertNull(loaded.getTask(removed.getId()));
+        assertEquals(2, loaded.getAllSubtasks().size());
+        Epic loadedEpic = loaded.getEpic(epic.getId());
+        assertEquals("Renamed", loadedEpic.getTitle());
+        assertEquals(TaskStatus.DONE, loadedEpic.getStatus());
+    }
+
+    @Test
+    void shouldIgnoreTornLastRecord() throws IOException {
+        manager.createTask(task);
+        Files.writeString(FileBackedTaskManager.getJournalFile(tempFile).toPath(), "PUT,1", StandardOpenOption.APPEND);
+
+        FileBackedTaskManager loaded = FileBackedTaskManager.loadFromFile(tempFile, PersistenceMode.JOURNAL);
+
+        assertEquals(1, loaded.getAllTasks().size());
+    }
+
+    @Test
+    void shouldNotApplyUnterminatedRecordEvenIfItParses() throws IOException {
+        Task created = manager.createTask(task);
+        File journal = FileBackedTaskManager.getJournalFile(tempFile);
+        // Оборванная запись "DELETE,TASK,1x" разбирается как удаление другой задачи
+        Files.writeString(journal.toPath(), "DELETE,TASK," + created.getId(), StandardOpenOption.APPEND);
+
+        FileBackedTaskManager loaded = FileBackedTaskManager.loadFromFile(tempFile, PersistenceMode.JOURNAL);
+        assertNotNull(loaded.getTask(created.getId()), "Запись без перевода строки не должна применяться");
+
+        loaded.createTask(new Task("Next", "Description"));
+        FileBackedTaskManager reloaded = FileBackedTaskManager.loadFromFile(tempFile, PersistenceMode.JOURNAL);
+        assertEquals(2, reloaded.getAllTasks().size(), "Новые записи идут после отрезанного хвоста");
+    }
+
+    @Test
+    void shouldFoldJournalIntoSnapshotWhenLoadedInSnapshotMode() {
+        manager.createSubtask(subtask1);
+
+        FileBackedTaskManager loaded = FileBackedTaskManager.loadFromFile(tempFile);
+
+        assertFalse(FileBackedTaskManager.getJournalFile(tempFile).exists());
+        assertEquals(1, FileBackedTaskManager.loadFromFile(tempFile).getAllSubtasks().size());
+        Subtask loadedSubtask = loaded.getSubtask(subtask1.getId());
+        assertEquals(epic.getId(), loadedSubtask.getEpicId());
+    }
+
+    @Test
+    void batchShouldBeWrittenInOneAppendAndRecovered() throws IOException {
+        File journal = FileBackedTaskManager.getJournalFile(tempFile);
+        long before = Files.readAllLines(journal.toPath()).size();
+
+        BatchResult result = manager.applyBatch(List.of(
+                BatchOperation.create(new Epic("Batch Epic", "Description")),
+                BatchOperation.createSubtask(new Subtask("Batch Subtask", "Description", 0), 0),
+                BatchOperation.create(task)));
+
+        assertTrue(result.isApplied());
+        assertEquals(before + 3, Files.readAllLines(journal.toPath()).size(), "Каждая операция - отдельная строка журнала");
+        FileBackedTaskManager loaded = FileBackedTaskManager.loadFromFile(tempFile, PersistenceMode.JOURNAL);
+        int epicId = result.getResults().get(0).getId();
+        assertEquals(1, loaded.getSubtasksByEpic(epicId).size());
+        assertNotNull(loaded.getTask(task.getId()));
+    }
+
+    @Test
+    void failedSnapshotWriteShouldLeavePreviousSnapshotIntact() throws IOException {
+        manager.createTask(task);
+        manager.compact();
+        byte[] snapshot = Files.readAllBytes(tempFile.toPath());
+
+        assertThrows(IOException.class, () -> SnapshotFiles.replace(tempFile, writer -> {
+            writer.write("id,type,name\n1,TASK,partial");
+            writer.flush();
+            throw new IOException("disk full");
+        }));
+
+        assertArrayEquals(snapshot, Files.readAllBytes(tempFile.toPath()), "Старый снимок не тронут");
+        assertFalse(SnapshotFiles.tempFile(tempFile).exists(), "Временный файл удалён");
+        manager.compact();
+        assertFalse(SnapshotFiles.tempFile(tempFile).exists(), "После замены временного файла не остаётся");
+        assertEquals(List.of(task), FileBackedTaskManager.loadFromFile(tempFile, PersistenceMode.JOURNAL).getAllTasks());
+    }
+}
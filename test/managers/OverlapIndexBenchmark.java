@@ -0,0 +1,103 @@
+package managers;
+
+import model.Task;
+import model.TaskStatus;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+// Сравнение проверки пересечений через TimeIntervalIndex с прежним линейным просмотром.
+// Запуск: java -cp <classpath> managers.OverlapIndexBenchmark
+public class OverlapIndexBenchmark {
+    private static final LocalDateTime BASE = LocalDateTime.of(2025, 1, 1, 0, 0);
+    private static final int QUERIES = 20_000;
+
+    public static void main(String[] args) {
+        for (int size : new int[]{1_000, 10_000, 100_000}) {
+            run(size);
+        }
+    }
+
+    private static void run(int size) {
+        Map<Integer, Task> tasks = new HashMap<>();
+        TimeIntervalIndex index = new TimeIntervalIndex();
+        for (int id = 1; id <= size; id++) {
+            Task task = new Task(id, "Task " + id, "", TaskStatus.NEW,
+                    Duration.ofMinutes(30), BASE.plusHours(id));
+            tasks.put(id, task);
+            index.add(id, task.getStartTime(), task.getEndTime());
+        }
+
+        Random random = new Random(size);
+        Task[] queries = new Task[QUERIES];
+        for (int i = 0; i < QUERIES; i++) {
+            queries[i] = new Task(0, "Query", "", TaskStatus.NEW,
+                    Duration.ofMinutes(20), BASE.plusHours(random.nextInt(size)).plusMinutes(35));
+        }
+
+        int scanQueries = Math.max(200, QUERIES / (size / 1_000));
+        for (int warmup = 0; warmup < 3; warmup++) {
+            measureScan(tasks, queries, scanQueries);
+            measureIndex(index, queries);
+        }
+        double scanNanos = measureScan(tasks, queries, scanQueries);
+        double indexNanos = measureIndex(index, queries);
+
+        System.out.printf("%,8d задач: линейный просмотр %,12.0f нс/проверка, индекс %,8.0f нс/проверка%n",
+                size, scanNanos, indexNanos);
+    }
+
+    private static double measureScan(Map<Integer, Task> tasks, Task[] queries, int count) {
+        long started = System.nanoTime();
+        int overlaps = 0;
+        for (int i = 0; i < count; i++) {
+            Task query = queries[i];
+            boolean hasOverlap = tasksWithTime(tasks).stream()
+                    .filter(existingTask -> !existingTask.equals(query))
+                    .anyMatch(existingTask -> isTimeOverlap(query, existingTask));
+            if (hasOverlap) {
+                overlaps++;
+            }
+        }
+        if (overlaps < 0) {
+            throw new IllegalStateException();
+        }
+        return (System.nanoTime() - started) / (double) count;
+    }
+
+    private static double measureIndex(TimeIntervalIndex index, Task[] queries) {
+        long started = System.nanoTime();
+        int overlaps = 0;
+        for (Task query : queries) {
+            if (index.hasOverlap(query.getStartTime(), query.getEndTime(), query.getId())) {
+                overlaps++;
+            }
+        }
+        if (overlaps < 0) {
+            throw new IllegalStateException();
+        }
+        return (System.nanoTime() - started) / (double) queries.length;
+    }
+
+    private static Collection<Task> tasksWithTime(Map<Integer, Task> tasks) {
+        List<Task> tasksWithTime = new ArrayList<>();
+        tasksWithTime.addAll(tasks.values().stream()
+                .filter(t -> t.getStartTime() != null)
+                .toList());
+        return tasksWithTime;
+    }
+
+    private static boolean isTimeOverlap(Task task1, Task task2) {
+        if (task1.getId() == task2.getId()) {
+            return false;
+        }
+        return !(task1.getEndTime().isBefore(task2.getStartTime())
+                || task2.getEndTime().isBefore(task1.getStartTime()));
+    }
+}
@@ -0,0 +1,67 @@
+package managers;
+
+import metrics.MBeans;
+import model.Epic;
+import model.Subtask;
+import model.Task;
+import model.TaskStatus;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.io.File;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TaskManagerMonitorTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void shouldExposeCountsAndOperationsThroughPlatformMBeanServer() throws Exception {
+        File file = tempDir.resolve("tasks.csv").toFile();
+        FileBackedTaskManager manager = new FileBackedTaskManager(file, PersistenceMode.JOURNAL, 100);
+        Task task = manager.createTask(new Task("Task", "Description"));
+        Epic epic = manager.createEpic(new Epic("Epic", "Description"));
+        manager.createSubtask(new Subtask("Subtask", "Description", epic.getId()));
+        manager.getTask(task.getId());
+
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        ObjectName name = TaskManagerMonitor.register(new ConcurrentTaskManager(manager), "monitor-test");
+        try {
+            assertEquals(new ObjectName("kanban:type=TaskManager,name=monitor-test"), name);
+            assertEquals(1, server.getAttribute(name, "TaskCount"));
+            assertEquals(1, server.getAttribute(name, "EpicCount"));
+            assertEquals(1, server.getAttribute(name, "SubtaskCount"));
+            assertEquals(1, server.getAttribute(name, "HistorySize"));
+            assertEquals(3L, server.getAttribute(name, "JournalRecords"));
+            assertTrue((Long) server.getAttribute(name, "LastSaveBytes") > 0);
+
+            server.invoke(name, "clearHistory", null, null);
+            server.invoke(name, "compact", null, null);
+
+            assertEquals(0, server.getAttribute(name, "HistorySize"));
+            assertEquals(0L, server.getAttribute(name, "JournalRecords"), "После снимка журнал пуст");
+            assertEquals(file.length(), server.getAttribute(name, "LastSaveBytes"));
+
+            TaskManagerMonitor.register(new InMemoryTaskManager(), "monitor-test");
+            assertEquals(0, server.getAttribute(name, "TaskCount"), "Повторная регистрация заменяет прежний MBean");
+        } finally {
+            MBeans.unregister(name);
+        }
+        assertFalse(server.isRegistered(name));
+    }
+
+    @Test
+    void inMemoryManagerShouldReportNoPersistence() {
+        ManagerStats stats = new InMemoryTaskManager().getStats();
+
+        assertEquals(0, stats.getLastSaveBytes());
+        assertEquals(-1, stats.getJournalRecords());
+        assertEquals(-1, stats.getJournalBytes());
+    }
+}
@@ -6,6 +6,7 @@ import org.junit.jupiter.api.Test;
 
 import java.time.Duration;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -318,6 +319,37 @@ public abstract class TaskManagerTest<T extends TaskManager> {
                 "Статус эпика с любой подзадачей IN_PROGRESS должен быть IN_PROGRESS");
     }
 
+    @Test
+    void epicStatusShouldFollowSubtaskTransitions() {
+        subtask1.setStartTime(null);
+        subtask1.setDuration(null);
+        subtask2.setStartTime(null);
+        subtask2.setDuration(null);
+        Subtask created1 = manager.createSubtask(subtask1);
+        Subtask created2 = manager.createSubtask(subtask2);
+
+        // Подзадачу меняют на месте и только потом передают в updateSubtask
+        created1.setStatus(TaskStatus.DONE);
+        manager.updateSubtask(created1);
+        assertEquals(TaskStatus.IN_PROGRESS, manager.getEpic(epic.getId()).getStatus());
+
+        created2.setStatus(TaskStatus.DONE);
+        manager.updateSubtask(created2);
+        assertEquals(TaskStatus.DONE, manager.getEpic(epic.getId()).getStatus());
+
+        manager.deleteSubtask(created1.getId());
+        created2.setStatus(TaskStatus.NEW);
+        manager.updateSubtask(created2);
+        assertEquals(TaskStatus.NEW, manager.getEpic(epic.getId()).getStatus());
+
+        created2.setStatus(TaskStatus.IN_PROGRESS);
+        manager.updateSubtask(created2);
+        assertEquals(TaskStatus.IN_PROGRESS, manager.getEpic(epic.getId()).getStatus());
+
+        manager.deleteAllSubtasks();
+        assertEquals(TaskStatus.NEW, manager.getEpic(epic.getId()).getStatus());
+    }
+
     // Тесты времени эпика
     @Test
     void shouldCalculateEpicTimeFromSubtasks() {
@@ -340,6 +372,39 @@ public abstract class TaskManagerTest<T extends TaskManager> {
         assertNotNull(savedEpic.getEndTime(), "EndTime эпика не должен быть null");
     }
 
+    @Test
+    void epicTimeShouldFollowSubtaskUpdatesAndDeletes() {
+        LocalDateTime start = LocalDateTime.of(2025, 1, 1, 10, 0);
+        subtask1.setStartTime(start);
+        subtask1.setDuration(Duration.ofMinutes(30));
+        subtask2.setStartTime(start.plusHours(1));
+        subtask2.setDuration(Duration.ofMinutes(45));
+        subtask3.setStartTime(start.plusHours(3));
+        subtask3.setDuration(Duration.ofMinutes(15));
+        Subtask created1 = manager.createSubtask(subtask1);
+        manager.createSubtask(subtask2);
+        Subtask created3 = manager.createSubtask(subtask3);
+
+        Epic savedEpic = manager.getEpic(epic.getId());
+        assertEquals(start, savedEpic.getStartTime());
+        assertEquals(start.plusHours(3).plusMinutes(15), savedEpic.getEndTime());
+        assertEquals(Duration.ofMinutes(90), savedEpic.getDuration());
+
+        // Самую раннюю подзадачу переносят на место после самой поздней
+        created1.setStartTime(start.plusHours(5));
+        manager.updateSubtask(created1);
+        savedEpic = manager.getEpic(epic.getId());
+        assertEquals(start.plusHours(1), savedEpic.getStartTime());
+        assertEquals(start.plusHours(5).plusMinutes(30), savedEpic.getEndTime());
+
+        manager.deleteSubtask(created1.getId());
+        manager.deleteSubtask(created3.getId());
+        savedEpic = manager.getEpic(epic.getId());
+        assertEquals(start.plusHours(1), savedEpic.getStartTime());
+        assertEquals(start.plusHours(1).plusMinutes(45), savedEpic.getEndTime());
+        assertEquals(Duration.ofMinutes(45), savedEpic.getDuration());
+    }
+
     @Test
     void epicTimeShouldBeNullWithNoSubtasks() {
         Epic savedEpic = manager.getEpic(epic.getId());
@@ -510,4 +575,204 @@ public abstract class TaskManagerTest<T extends TaskManager> {
         assertEquals(createdTask1.getId(), history.get(1).getId(), "Порядок истории должен сохраняться");
         assertEquals(createdTask3.getId(), history.get(2).getId(), "Порядок истории должен сохраняться");
     }
-}
\ No newline at end of file
+
+    @Test
+    void pagesShouldCoverAllTasksInOrder() {
+        LocalDateTime start = LocalDateTime.of(2030, 1, 1, 0, 0);
+        for (int i = 0; i < 7; i++) {
+            manager.createTask(new Task("Task " + i, "Description", TaskStatus.NEW,
+                    Duration.ofMinutes(30), start.minusHours(i)));
+        }
+
+        List<Task> byId = new ArrayList<>();
+        String cursor = null;
+        do {
+            Page<Task> page = manager.getTasksPage(cursor, 3);
+            assertTrue(page.getItems().size() <= 3, "Страница не должна превышать лимит");
+            byId.addAll(page.getItems());
+            cursor = page.getNextCursor();
+        } while (cursor != null);
+        assertEquals(manager.getAllTasks(), byId, "Страницы по id должны совпадать с полным списком");
+
+        List<Task> byTime = new ArrayList<>();
+        cursor = null;
+        do {
+            Page<Task> page = manager.getPrioritizedTasksPage(cursor, 2);
+            byTime.addAll(page.getItems());
+            cursor = page.getNextCursor();
+        } while (cursor != null);
+        assertEquals(manager.getPrioritizedTasks(), byTime, "Страницы по времени должны совпадать с полным списком");
+
+        assertThrows(IllegalArgumentException.class, () -> manager.getTasksPage("abc", 3));
+        assertThrows(IllegalArgumentException.class, () -> manager.getTasksPage(null, 0));
+    }
+
+    @Test
+    void versionShouldChangeOnlyOnMutations() {
+        long initial = manager.getVersion();
+        manager.createTask(task);
+        long afterCreate = manager.getVersion();
+        assertTrue(afterCreate > initial, "Создание задачи должно менять версию");
+
+        manager.getTask(task.getId());
+        manager.getAllTasks();
+        manager.getPrioritizedTasks();
+        assertEquals(afterCreate, manager.getVersion(), "Чтение не должно менять версию");
+
+        manager.deleteTask(task.getId());
+        assertTrue(manager.getVersion() > afterCreate, "Удаление задачи должно менять версию");
+    }
+
+    @Test
+    void changesShouldIncludeEpicRecalculatedBySubtask() {
+        long before = manager.getVersion();
+        manager.createSubtask(subtask1);
+        manager.deleteTask(12345);
+
+        ChangeSet changes = manager.getChangesSince(before);
+        assertFalse(changes.isResyncRequired());
+        assertEquals(manager.getVersion(), changes.getVersion());
+        assertEquals(2, changes.getChanges().size(), "Удаление несуществующей задачи не должно попадать в журнал");
+        Change created = changes.getChanges().get(0);
+        assertEquals(ChangeType.CREATED, created.getType());
+        assertEquals(TaskType.SUBTASK, created.getTaskType());
+        assertEquals(subtask1.getId(), created.getId());
+        Change epicUpdated = changes.getChanges().get(1);
+        assertEquals(ChangeType.UPDATED, epicUpdated.getType());
+        assertEquals(epic.getId(), epicUpdated.getId());
+        assertEquals(created.getVersion(), epicUpdated.getVersion(), "Пересчёт эпика входит в ту же версию");
+    }
+
+    @Test
+    void batchShouldCreateEpicWithSubtasksByReference() {
+        LocalDateTime start = LocalDateTime.of(2030, 1, 1, 10, 0);
+        Subtask first = new Subtask("First", "Description", 0);
+        first.setStartTime(start);
+        first.setDuration(Duration.ofMinutes(30));
+        Subtask second = new Subtask("Second", "Description", 0);
+        second.setStartTime(start.plusHours(1));
+        second.setDuration(Duration.ofMinutes(30));
+
+        BatchResult result = manager.applyBatch(List.of(
+                BatchOperation.create(new Epic("Batch Epic", "Description")),
+                BatchOperation.createSubtask(first, 0),
+                BatchOperation.createSubtask(second, 0)));
+
+        assertTrue(result.isApplied(), "Пакет должен быть применён");
+        int epicId = result.getResults().get(0).getId();
+        assertEquals(2, manager.getSubtasksByEpic(epicId).size(), "Подзадачи должны попасть в созданный эпик");
+        assertEquals(start, manager.getEpic(epicId).getStartTime(), "Время эпика должно пересчитаться");
+        assertEquals(second.getId(), result.getResults().get(2).getId());
+    }
+
+    @Test
+    void batchShouldBeRejectedAsWholeOnOverlap() {
+        LocalDateTime start = LocalDateTime.of(2030, 1, 1, 10, 0);
+        task.setStartTime(start);
+        task.setDuration(Duration.ofMinutes(60));
+        manager.createTask(task);
+        long version = manager.getVersion();
+
+        Task free = new Task("Free", "Description");
+        free.setStartTime(start.plusHours(5));
+        free.setDuration(Duration.ofMinutes(10));
+        Task overlapping = new Task("Overlapping", "Description");
+        overlapping.setStartTime(start.plusMinutes(30));
+        overlapping.setDuration(Duration.ofMinutes(10));
+
+        BatchResult result = manager.applyBatch(List.of(
+                BatchOperation.create(free),
+                BatchOperation.create(overlapping),
+                BatchOperation.delete(TaskType.TASK, 999)));
+
+        assertFalse(result.isApplied(), "Пакет с ошибкой не должен применяться");
+        assertEquals(BatchResult.Status.NOT_APPLIED, result.getResults().get(0).getStatus());
+        assertEquals(BatchResult.Status.FAILED, result.getResults().get(2).getStatus());
+        assertEquals(BatchResult.ErrorType.NOT_FOUND, result.getResults().get(2).getError());
+        assertEquals(1, manager.getAllTasks().size(), "Ни одна операция пакета не должна примениться");
+        assertEquals(version, manager.getVersion(), "Отклонённый пакет не должен менять версию");
+
+        result = manager.applyBatch(List.of(BatchOperation.create(free), BatchOperation.create(overlapping)));
+        assertFalse(result.isApplied());
+        assertEquals(BatchResult.ErrorType.OVERLAP, result.getResults().get(1).getError());
+        assertEquals(BatchResult.Status.NOT_APPLIED, result.getResults().get(0).getStatus());
+    }
+
+    @Test
+    void batchShouldAllowSwappingTimesOfTwoTasks() {
+        LocalDateTime start = LocalDateTime.of(2030, 1, 1, 10, 0);
+        task.setStartTime(start);
+        task.setDuration(Duration.ofMinutes(60));
+        manager.createTask(task);
+        Task other = new Task("Other", "Description");
+        other.setStartTime(start.plusHours(2));
+        other.setDuration(Duration.ofMinutes(60));
+        manager.createTask(other);
+
+        Task movedTask = new Task(task.getTitle(), task.getDescription());
+        movedTask.setId(task.getId());
+        movedTask.setStatus(TaskStatus.NEW);
+        movedTask.setStartTime(start.plusHours(2));
+        movedTask.setDuration(Duration.ofMinutes(60));
+        Task movedOther = new Task(other.getTitle(), other.getDescription());
+        movedOther.setId(other.getId());
+        movedOther.setStatus(TaskStatus.NEW);
+        movedOther.setStartTime(start);
+        movedOther.setDuration(Duration.ofMinutes(60));
+
+        BatchResult result = manager.applyBatch(List.of(BatchOperation.update(movedTask), BatchOperation.update(movedOther)));
+
+        assertTrue(result.isApplied(), "Обмен временем двух задач не является пересечением");
+        assertEquals(start, manager.getTask(other.getId()).getStartTime());
+        assertEquals(List.of(other.getId(), task.getId()),
+                manager.getPrioritizedTasks().stream().map(Task::getId).toList());
+    }
+
+    @Test
+    void transactionShouldRecalculateEpicOnceOnCommit() {
+        Transaction transaction = manager.beginTransaction();
+        int epicRef = transaction.createEpic(new Epic("Transaction Epic", "Description"));
+        Subtask done = new Subtask("Done", "Description", 0);
+        done.setStatus(TaskStatus.DONE);
+        transaction.createSubtask(done, epicRef);
+        transaction.createSubtask(subtask1);
+        transaction.createSubtask(subtask2);
+        transaction.createTask(task);
+        long before = manager.getVersion();
+        assertTrue(manager.getAllTasks().isEmpty(), "До commit изменения не должны применяться");
+
+        BatchResult result = transaction.commit();
+
+        assertTrue(result.isApplied());
+        Epic created = manager.getEpic(result.getResults().get(0).getId());
+        assertEquals(TaskStatus.DONE, created.getStatus(), "Статус эпика должен учитывать подзадачу из транзакции");
+        assertEquals(2, manager.getSubtasksByEpic(epic.getId()).size());
+        long epicUpdates = manager.getChangesSince(before).getChanges().stream()
+                .filter(change -> change.getTaskType() == TaskType.EPIC && change.getType() == ChangeType.UPDATED)
+                .count();
+        assertEquals(2, epicUpdates, "Каждый затронутый эпик пересчитывается один раз");
+        assertThrows(IllegalStateException.class, () -> transaction.deleteTask(task.getId()),
+                "Завершённая транзакция не принимает изменений");
+    }
+
+    @Test
+    void failedOrRolledBackTransactionShouldNotChangeManager() {
+        manager.createSubtask(subtask1);
+        long version = manager.getVersion();
+
+        Transaction transaction = manager.beginTransaction();
+        transaction.deleteSubtask(subtask1.getId());
+        transaction.deleteEpic(12345);
+        BatchResult result = transaction.commit();
+
+        assertFalse(result.isApplied());
+        assertNotNull(manager.getSubtask(subtask1.getId()), "Подзадача не должна удаляться при ошибке в транзакции");
+        assertEquals(version, manager.getVersion());
+
+        Transaction rolledBack = manager.beginTransaction();
+        rolledBack.createTask(task);
+        rolledBack.rollback();
+        assertTrue(manager.getAllTasks().isEmpty());
+        assertThrows(IllegalStateException.class, rolledBack::commit);
+    }
+}
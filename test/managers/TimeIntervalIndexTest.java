@@ -0,0 +1,86 @@
+package managers;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TimeIntervalIndexTest {
+    private static final LocalDateTime BASE = LocalDateTime.of(2025, 1, 1, 0, 0);
+    private TimeIntervalIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new TimeIntervalIndex();
+    }
+
+    @Test
+    void shouldDetectOverlapIncludingBoundaries() {
+        index.add(1, BASE, BASE.plusMinutes(30));
+
+        assertTrue(index.hasOverlap(BASE.plusMinutes(15), BASE.plusMinutes(45), 0));
+        assertTrue(index.hasOverlap(BASE.plusMinutes(30), BASE.plusMinutes(60), 0),
+                "Совпадение конца и начала считается пересечением");
+        assertFalse(index.hasOverlap(BASE.plusMinutes(31), BASE.plusMinutes(60), 0));
+    }
+
+    @Test
+    void shouldIgnoreExcludedId() {
+        index.add(1, BASE, BASE.plusMinutes(30));
+
+        assertFalse(index.hasOverlap(BASE, BASE.plusMinutes(30), 1));
+    }
+
+    @Test
+    void shouldForgetRemovedAndReplacedIntervals() {
+        index.add(1, BASE, BASE.plusMinutes(30));
+        index.add(1, BASE.plusHours(2), BASE.plusHours(3));
+
+        assertEquals(1, index.size());
+        assertFalse(index.hasOverlap(BASE, BASE.plusMinutes(30), 0));
+        assertTrue(index.hasOverlap(BASE.plusHours(2), BASE.plusHours(2), 0));
+
+        index.remove(1);
+        assertEquals(0, index.size());
+        assertFalse(index.hasOverlap(BASE.plusHours(2), BASE.plusHours(3), 0));
+    }
+
+    @Test
+    void shouldMatchLinearScanOnRandomData() {
+        Random random = new Random(42);
+        List<LocalDateTime[]> intervals = new ArrayList<>();
+        for (int id = 1; id <= 500; id++) {
+            LocalDateTime start = BASE.plusMinutes(random.nextInt(100_000));
+            LocalDateTime end = start.plusMinutes(random.nextInt(120));
+            intervals.add(new LocalDateTime[]{start, end});
+            index.add(id, start, end);
+        }
+        for (int id = 1; id <= 500; id += 3) {
+            index.remove(id);
+        }
+
+        for (int i = 0; i < 2_000; i++) {
+            LocalDateTime start = BASE.plusMinutes(random.nextInt(100_000));
+            LocalDateTime end = start.plusMinutes(random.nextInt(120));
+            int excludedId = random.nextInt(500) + 1;
+
+            boolean expected = false;
+            for (int id = 1; id <= 500; id++) {
+                if ((id - 1) % 3 == 0 || id == excludedId) {
+                    continue;
+                }
+                LocalDateTime[] interval = intervals.get(id - 1);
+                if (!(end.isBefore(interval[0]) || interval[1].isBefore(start))) {
+                    expected = true;
+                    break;
+                }
+            }
+            assertEquals(expected, index.hasOverlap(start, end, excludedId));
+        }
+    }
+}
@@ -0,0 +1,51 @@
+package metrics;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MetricsRegistryTest {
+
+    @Test
+    void histogramShouldCountIntoCumulativeBuckets() {
+        Histogram histogram = new Histogram(new double[]{0.001, 0.01});
+        histogram.recordNanos(500_000);
+        histogram.recordNanos(1_000_000);
+        histogram.recordNanos(5_000_000);
+        histogram.recordNanos(2_000_000_000L);
+
+        assertArrayEquals(new long[]{2, 3, 4}, histogram.cumulativeCounts(), "Граница входит в свою корзину");
+        assertEquals(4, histogram.getCount());
+        assertEquals(2.0065, histogram.getSumSeconds(), 1e-9);
+    }
+
+    @Test
+    void sameNameAndLabelsShouldReturnSameMetric() {
+        MetricsRegistry registry = new MetricsRegistry();
+        Counter first = registry.counter("requests_total", "Requests", "method", "GET");
+
+        assertSame(first, registry.counter("requests_total", "Requests", "method", "GET"));
+        assertNotSame(first, registry.counter("requests_total", "Requests", "method", "POST"));
+        assertThrows(IllegalArgumentException.class, () -> registry.histogram("requests_total", "Requests"),
+                "Имя уже занято счётчиком");
+        assertThrows(IllegalArgumentException.class, () -> registry.counter("other_total", "Other", "method"));
+    }
+
+    @Test
+    void shouldExportPrometheusTextFormat() {
+        MetricsRegistry registry = new MetricsRegistry();
+        registry.counter("requests_total", "Requests", "route", "/tasks/{id}", "note", "a\"b").add(3);
+        registry.histogram("latency_seconds", "Latency").recordNanos(1_000_000);
+
+        String text = registry.toPrometheusText();
+
+        assertTrue(text.contains("# HELP requests_total Requests\n# TYPE requests_total counter\n"));
+        assertTrue(text.contains("requests_total{route=\"/tasks/{id}\",note=\"a\\\"b\"} 3\n"), text);
+        assertTrue(text.contains("# TYPE latency_seconds histogram\n"));
+        assertTrue(text.contains("latency_seconds_bucket{le=\"5.0E-4\"} 0\n"), text);
+        assertTrue(text.contains("latency_seconds_bucket{le=\"0.001\"} 1\n"), text);
+        assertTrue(text.contains("latency_seconds_bucket{le=\"+Inf\"} 1\n"), text);
+        assertTrue(text.contains("latency_seconds_sum 0.001\n"), text);
+        assertTrue(text.contains("latency_seconds_count 1\n"), text);
+    }
+}
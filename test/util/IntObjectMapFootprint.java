@@ -0,0 +1,48 @@
+package util;
+
+import java.util.HashMap;
+import java.util.Map;
+
+// Сравнение занимаемой кучи: HashMap<Integer, Object> и IntObjectMap на 1 000 000 записей.
+// Значения общие для обоих вариантов и в замер не входят.
+// Запуск: java -cp <classpath> util.IntObjectMapFootprint
+public class IntObjectMapFootprint {
+    private static final int ENTRIES = 1_000_000;
+
+    public static void main(String[] args) {
+        Object[] values = new Object[ENTRIES];
+        for (int i = 0; i < ENTRIES; i++) {
+            values[i] = new Object();
+        }
+
+        long before = usedMemory();
+        Map<Integer, Object> hashMap = new HashMap<>();
+        for (int i = 0; i < ENTRIES; i++) {
+            hashMap.put(i + 1, values[i]);
+        }
+        long hashMapBytes = usedMemory() - before;
+
+        before = usedMemory();
+        IntObjectMap<Object> intMap = new IntObjectMap<>();
+        for (int i = 0; i < ENTRIES; i++) {
+            intMap.put(i + 1, values[i]);
+        }
+        long intMapBytes = usedMemory() - before;
+
+        System.out.printf("HashMap<Integer, Object>: %,d байт (%.1f на запись)%n",
+                hashMapBytes, hashMapBytes / (double) ENTRIES);
+        System.out.printf("IntObjectMap<Object>:     %,d байт (%.1f на запись)%n",
+                intMapBytes, intMapBytes / (double) ENTRIES);
+        if (hashMap.size() != intMap.size()) {
+            throw new IllegalStateException();
+        }
+    }
+
+    private static long usedMemory() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 5; i++) {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
@@ -0,0 +1,133 @@
+package util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class IntObjectMapTest {
+
+    @Test
+    void shouldPutGetAndRemove() {
+        IntObjectMap<String> map = new IntObjectMap<>();
+
+        assertNull(map.put(1, "one"));
+        assertEquals("one", map.put(1, "uno"));
+        assertEquals("uno", map.get(1));
+        assertTrue(map.containsKey(1));
+        assertNull(map.get(2));
+
+        assertEquals("uno", map.remove(1));
+        assertNull(map.remove(1));
+        assertTrue(map.isEmpty());
+    }
+
+    @Test
+    void shouldIterateValuesInInsertionOrder() {
+        IntObjectMap<Integer> map = new IntObjectMap<>();
+        for (int i = 100; i > 0; i--) {
+            map.put(i, i);
+        }
+        for (int i = 1; i <= 100; i += 2) {
+            map.remove(i);
+        }
+
+        List<Integer> values = new ArrayList<>(map.values());
+        assertEquals(50, values.size());
+        assertEquals(100, values.get(0));
+        assertEquals(2, values.get(49));
+    }
+
+    @Test
+    void shouldBehaveLikeHashMapOnRandomOperations() {
+        Random random = new Random(7);
+        IntObjectMap<Integer> map = new IntObjectMap<>();
+        Map<Integer, Integer> expected = new LinkedHashMap<>();
+
+        for (int i = 0; i < 200_000; i++) {
+            int key = random.nextInt(5_000) - 100;
+            switch (random.nextInt(4)) {
+                case 0:
+                    assertEquals(expected.remove(key), map.remove(key));
+                    break;
+                case 1:
+                    assertEquals(expected.get(key), map.get(key));
+                    break;
+                default:
+                    assertEquals(expected.put(key, i), map.put(key, i));
+            }
+            assertEquals(expected.size(), map.size());
+        }
+        assertEquals(new ArrayList<>(expected.values()), new ArrayList<>(map.values()));
+
+        map.clear();
+        assertTrue(map.isEmpty());
+        assertFalse(map.values().iterator().hasNext());
+    }
+
+    @Test
+    void valuesAfterShouldReturnKeysInAscendingOrder() {
+        IntObjectMap<String> ascending = new IntObjectMap<>();
+        IntObjectMap<String> shuffled = new IntObjectMap<>();
+        List<Integer> keys = new ArrayList<>();
+        for (int key = 1; key <= 100; key++) {
+            ascending.put(key, "v" + key);
+            keys.add(key);
+        }
+        Collections.shuffle(keys, new Random(3));
+        for (int key : keys) {
+            shuffled.put(key, "v" + key);
+        }
+        for (int key = 10; key <= 100; key += 10) {
+            ascending.remove(key);
+            shuffled.remove(key);
+        }
+
+        for (IntObjectMap<String> map : List.of(ascending, shuffled)) {
+            assertEquals(List.of("v1", "v2", "v3"), map.valuesAfter(0, 3));
+            assertEquals(List.of("v11", "v12"), map.valuesAfter(9, 2), "Удалённый ключ-курсор не должен мешать");
+            assertEquals(List.of("v99"), map.valuesAfter(98, 5));
+            assertTrue(map.valuesAfter(100, 5).isEmpty());
+        }
+    }
+
+    @Test
+    void removingMostEntriesShouldCompactAndFreeArrays() {
+        IntObjectMap<Integer> map = new IntObjectMap<>();
+        int count = 100_000;
+        for (int i = 1; i <= count; i++) {
+            map.put(i, i);
+        }
+        int grownCapacity = map.capacity();
+
+        for (int i = 1; i <= count; i++) {
+            if (i % 100 != 0) {
+                map.remove(i);
+            }
+        }
+
+        assertEquals(count / 100, map.size());
+        assertTrue(map.capacity() <= 4 * map.size(),
+                "После удаления почти всех записей массивы уменьшаются: " + map.capacity() + " из " + grownCapacity);
+        List<Integer> expected = new ArrayList<>();
+        for (int i = 100; i <= count; i += 100) {
+            expected.add(i);
+            assertEquals(i, map.get(i));
+        }
+        assertEquals(expected, new ArrayList<>(map.values()));
+        assertEquals(expected.subList(5, 15), map.valuesAfter(500, 10));
+        List<Integer> keys = new ArrayList<>();
+        map.forEachKey(keys::add);
+        assertEquals(expected, keys);
+
+        map.put(count + 1, count + 1);
+        assertNull(map.get(1));
+        assertEquals(count + 1, map.get(count + 1));
+    }
+}
@@ -0,0 +1,88 @@
+package util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class IntSetTest {
+
+    @Test
+    void shouldAddRemoveAndKeepInsertionOrder() {
+        IntSet set = new IntSet();
+        assertTrue(set.add(5));
+        assertTrue(set.add(1));
+        assertTrue(set.add(3));
+        assertFalse(set.add(1));
+
+        assertTrue(set.remove(1));
+        assertFalse(set.remove(1));
+        assertTrue(set.contains(5));
+        assertFalse(set.contains(1));
+        assertEquals(List.of(5, 3), set.toList());
+    }
+
+    @Test
+    void copyShouldBeIndependent() {
+        IntSet set = new IntSet();
+        set.add(1);
+        IntSet copy = new IntSet(set);
+        copy.add(2);
+        set.remove(1);
+
+        assertEquals(List.of(1, 2), copy.toList());
+        assertTrue(set.isEmpty());
+    }
+
+    @Test
+    void shouldBehaveLikeLinkedHashSetOnRandomOperations() {
+        Random random = new Random(11);
+        IntSet set = new IntSet();
+        Set<Integer> expected = new LinkedHashSet<>();
+
+        for (int i = 0; i < 100_000; i++) {
+            int value = random.nextInt(2_000);
+            if (random.nextBoolean()) {
+                assertEquals(expected.add(value), set.add(value));
+            } else {
+                assertEquals(expected.remove(value), set.remove(value));
+            }
+            assertEquals(expected.size(), set.size());
+        }
+        assertEquals(new ArrayList<>(expected), set.toList());
+    }
+
+    @Test
+    void removingMostElementsShouldCompactAndFreeArrays() {
+        IntSet set = new IntSet();
+        int count = 100_000;
+        for (int i = 1; i <= count; i++) {
+            set.add(i);
+        }
+        int grownCapacity = set.capacity();
+
+        for (int i = 1; i <= count; i++) {
+            if (i % 100 != 0) {
+                set.remove(i);
+            }
+        }
+
+        assertEquals(count / 100, set.size());
+        assertTrue(set.capacity() <= 4 * set.size(),
+                "После удаления почти всех элементов массивы уменьшаются: " + set.capacity() + " из " + grownCapacity);
+        List<Integer> expected = new ArrayList<>();
+        for (int i = 100; i <= count; i += 100) {
+            expected.add(i);
+            assertTrue(set.contains(i));
+        }
+        assertEquals(expected, set.toList());
+        assertFalse(set.contains(1));
+        assertTrue(set.add(1));
+        assertTrue(set.contains(1));
+    }
+}